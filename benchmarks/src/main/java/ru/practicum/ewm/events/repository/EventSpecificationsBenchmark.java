@@ -0,0 +1,117 @@
+package ru.practicum.ewm.events.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+
+import static ru.practicum.ewm.events.repository.EventSpecifications.*;
+
+/**
+ * Построение Criteria-запроса публичного поиска из EventSpecifications и его компиляция Hibernate
+ * (без выполнения). Поднимается только JPA на H2: EwmMainServiceApplication сканирует весь ru.practicum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSpecificationsBenchmark {
+
+    private final List<Long> categories = List.of(1L, 2L, 3L, 4L, 5L);
+    private final LocalDateTime start = LocalDateTime.now();
+    private final LocalDateTime end = start.plusMonths(1);
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(JpaOnly.class,
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.url=jdbc:h2:mem:ewm-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.sql.init.mode=never",
+                "--spring.data.jpa.repositories.enabled=false");
+        em = context.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Event> buildPredicate() {
+        return criteria(publicSearch(false));
+    }
+
+    @Benchmark
+    public TypedQuery<Event> compileQuery() {
+        return em.createQuery(criteria(publicSearch(false)));
+    }
+
+    @Benchmark
+    public TypedQuery<Event> compileFullTextQuery() {
+        return em.createQuery(criteria(publicSearch(true)));
+    }
+
+    private Specification<Event> publicSearch(boolean fullText) {
+        String query = "концерт";
+        return Specification.where(stateIn(List.of(EventState.PUBLISHED)))
+                .and(fullText ? fullText(query) : text(query))
+                .and(categoryIn(categories))
+                .and(paid(Boolean.TRUE))
+                .and(eventDateAfter(start))
+                .and(eventDateBefore(end))
+                .and(onlyAvailable(Boolean.TRUE));
+    }
+
+    private CriteriaQuery<Event> criteria(Specification<Event> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Event> cq = cb.createQuery(Event.class);
+        Root<Event> root = cq.from(Event.class);
+        cq.where(spec.toPredicate(root, cq, cb));
+        return cq;
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("ru.practicum.ewm")
+    static class JpaOnly {
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.ewm.events.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.dto.ViewStatsDto;
+
+/**
+ * StatsClient без HTTP: разбирает заранее сериализованный ответ /stats для заданных uri,
+ * чтобы в замер попадал только разбор ответа, но не сеть.
+ */
+class CannedStatsClient extends StatsClient {
+
+    private final byte[] body;
+
+    CannedStatsClient(List<String> uris) {
+        super("http://localhost:9090", new RestTemplateBuilder());
+
+        List<ViewStatsDto> stats = new ArrayList<>(uris.size());
+        long hits = 1;
+        for (String uri : uris) {
+            stats.add(new ViewStatsDto("ewm-main-service", uri, hits++));
+        }
+        try {
+            this.body = new ObjectMapper().writeValueAsBytes(stats);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getViews(LocalDateTime start,
+                                      LocalDateTime end,
+                                      List<String> uris,
+                                      Boolean unique,
+                                      Boolean approximate) {
+        try {
+            return readViews(new ByteArrayInputStream(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
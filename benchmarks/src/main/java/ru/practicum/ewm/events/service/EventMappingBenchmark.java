@@ -0,0 +1,88 @@
+package ru.practicum.ewm.events.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.events.dto.EventShortDto;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.users.model.User;
+
+/**
+ * Сборка EventShortDto для страницы событий: маппинг, категория, инициатор и просмотры
+ * (StatsFacade поверх CannedStatsClient, без кэша).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventMappingBenchmark {
+
+    @Param({"10", "1000"})
+    public int events;
+
+    private EventEnricher eventEnricher;
+    private List<Event> page;
+
+    @Setup
+    public void setUp() {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Концерты");
+        User initiator = new User(1L, "Организатор", "org@example.com");
+
+        GeoLocation location = new GeoLocation();
+        location.setLat(55.75f);
+        location.setLon(37.62f);
+
+        LocalDateTime now = LocalDateTime.now();
+        page = new ArrayList<>(events);
+        for (long id = 1; id <= events; id++) {
+            Event e = new Event();
+            e.setId(id);
+            e.setTitle("Событие " + id);
+            e.setAnnotation("Аннотация события " + id + " длиной не меньше двадцати символов");
+            e.setDescription("Описание события " + id);
+            e.setCategory(category);
+            e.setInitiator(initiator);
+            e.setLocation(location);
+            e.setEventDate(now.plusDays(id % 30 + 1));
+            e.setPaid(id % 2 == 0);
+            e.setParticipantLimit(100);
+            e.setConfirmedRequests(id % 100);
+            e.setState(EventState.PUBLISHED);
+            e.setCreatedOn(now.minusDays(7));
+            e.setPublishedOn(now.minusDays(6));
+            page.add(e);
+        }
+
+        List<String> uris = page.stream().map(e -> "/events/" + e.getId()).toList();
+        StatsFacade statsFacade = new StatsFacade(new CannedStatsClient(uris), null, null,
+                new StatsCircuitBreaker(new SimpleMeterRegistry(), false, 5, 10000, 1000, 1, false, System::nanoTime),
+                false, false, false, 4, 2000, false);
+        eventEnricher = new EventEnricher(statsFacade);
+    }
+
+    @Benchmark
+    public List<EventShortDto> toShortDtos() {
+        return eventEnricher.toShortDtos(page);
+    }
+}
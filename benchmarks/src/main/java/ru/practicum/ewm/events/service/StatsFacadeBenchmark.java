@@ -0,0 +1,52 @@
+package ru.practicum.ewm.events.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * getViews без кэша и сети: разбор JSON-ответа stats-server в карту просмотров.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsFacadeBenchmark {
+
+    @Param({"10", "1000"})
+    public int uris;
+
+    private StatsFacade statsFacade;
+    private List<String> requested;
+
+    @Setup
+    public void setUp() {
+        requested = IntStream.range(0, uris)
+                .mapToObj(i -> "/events/" + i)
+                .toList();
+        statsFacade = new StatsFacade(new CannedStatsClient(requested), null, null,
+                new StatsCircuitBreaker(new SimpleMeterRegistry(), false, 5, 10000, 1000, 1, false, System::nanoTime),
+                false, false, false, 4, 2000, false);
+    }
+
+    @Benchmark
+    public Map<String, Long> getViews() {
+        return statsFacade.getViews(requested);
+    }
+}
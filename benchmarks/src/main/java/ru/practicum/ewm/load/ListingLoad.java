@@ -0,0 +1,111 @@
+package ru.practicum.ewm.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузка на публичный список событий для сравнения режимов потоков main-service:
+ * concurrency клиентов без пауз запрашивают url в течение duration, в конце печатаются
+ * пропускная способность и перцентили задержки. Сервис поднимается дважды — с VIRTUAL_THREADS=false и true:
+ * <pre>
+ * VIRTUAL_THREADS=false docker compose up -d
+ * java -cp benchmarks/target/benchmarks.jar ru.practicum.ewm.load.ListingLoad \
+ *     "http://localhost:8080/events?size=50" 400 PT60S
+ * </pre>
+ */
+public final class ListingLoad {
+
+    private ListingLoad() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: ListingLoad <url> [concurrency=200] [duration=PT30S] [warmup=PT10S]");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]);
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Duration duration = args.length > 2 ? Duration.parse(args[2]) : Duration.ofSeconds(30);
+        Duration warmup = args.length > 3 ? Duration.parse(args[3]) : Duration.ofSeconds(10);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        System.out.printf("warmup %s, %d clients%n", warmup, concurrency);
+        run(client, request, concurrency, warmup);
+
+        Result result = run(client, request, concurrency, duration);
+        long[] latencies = result.latencies();
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("requests %d, errors %d, throughput %.1f req/s%n",
+                latencies.length, result.errors(), latencies.length / seconds);
+        System.out.printf("latency ms: p50 %.1f, p95 %.1f, p99 %.1f, max %.1f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    // клиенты на виртуальных потоках: нагрузчик сам не ограничивает число одновременных запросов
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, Duration duration)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<List<Long>> perClient = new ArrayList<>(concurrency);
+        LongAdder errors = new LongAdder();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                List<Long> latencies = new ArrayList<>();
+                perClient.add(latencies);
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                                continue;
+                            }
+                            latencies.add(System.nanoTime() - start);
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                    }
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+        }
+
+        long[] all = perClient.stream()
+                .flatMap(List::stream)
+                .mapToLong(Long::longValue)
+                .toArray();
+        Arrays.sort(all);
+        return new Result(all, errors.sum());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return Double.NaN;
+
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record Result(long[] latencies, long errors) {
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.stats.server.mapper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.server.model.EndpointHit;
+
+/**
+ * Приём хита: разбор DTO с DateTimeFormatter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndpointHitMapperBenchmark {
+
+    private final EndpointHitDto dto =
+            new EndpointHitDto("ewm-main-service", "/events/42", "192.168.1.1", "2024-01-15 10:00:00");
+
+    @Benchmark
+    public EndpointHit toEntity() {
+        return EndpointHitMapper.toEntity(dto);
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.stats.server.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.StatsServerApplication;
+import ru.practicum.stats.server.counter.HitCounters;
+
+/**
+ * GET /stats на H2: stats-server поднимается целиком, хиты за последние сутки загружаются через StatsService.
+ * mode переключает HitCounters (DB / MEMORY), rolledUp — свёрнуты ли закрытые часы в агрегаты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsServiceBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int URIS = 200;
+    private static final int HOURS = 20;
+
+    @Param({"100000"})
+    public int hits;
+
+    @Param({"DB", "MEMORY"})
+    public String mode;
+
+    @Param({"false", "true"})
+    public boolean rolledUp;
+
+    private ConfigurableApplicationContext context;
+    private StatsService statsService;
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private List<String> someUris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(StatsServerApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.url=jdbc:h2:mem:stats-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.sql.init.mode=never",
+                "--stats.rollup.enabled=false",
+                "--stats.partitions.enabled=false",
+                "--stats.legacy-migration.enabled=false",
+                "--stats.counters.mode=" + mode);
+        statsService = context.getBean(StatsService.class);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        start = now.minusHours(HOURS);
+        end = now;
+        someUris = List.of("/events/1", "/events/2", "/events/3", "/events/4", "/events/5");
+
+        seed(now);
+        if (rolledUp) {
+            context.getBean(RollupService.class).compact(now);
+        }
+        context.getBean(HitCounters.class).rebuild(LocalDateTime.now());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> allUris() {
+        return statsService.getStats(start, end, null, false);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> selectedUris() {
+        return statsService.getStats(start, end, someUris, false);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> uniqueSelectedUris() {
+        return statsService.getStats(start, end, someUris, true);
+    }
+
+    private void seed(LocalDateTime now) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long seconds = ChronoUnit.SECONDS.between(start, now);
+
+        List<EndpointHitDto> batch = new ArrayList<>(1000);
+        for (int i = 0; i < hits; i++) {
+            batch.add(new EndpointHitDto(
+                    "ewm-main-service",
+                    "/events/" + random.nextInt(URIS),
+                    "10.0." + random.nextInt(256) + "." + random.nextInt(256),
+                    start.plusSeconds(random.nextLong(seconds)).format(FORMATTER)));
+            if (batch.size() == 1000) {
+                statsService.saveHits(batch);
+                batch.clear();
+            }
+        }
+        statsService.saveHits(batch);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.common.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Диагностика закрепления виртуальных потоков (pinning): блокирующий вызов внутри synchronized
+ * или native-кода держит поток-носитель, и при нехватке носителей запросы встают в очередь.
+ * JFR-событие jdk.VirtualThreadPinned дольше порога попадает в таймер {@code <prefix>.threads.virtual.pinned}
+ * и в лог вместе с верхними кадрами стека — по ним видно, чей synchronized (Hibernate, драйвер, свой код).
+ * <p>
+ * Общий для сервисов: каждый регистрирует его бином со своим префиксом метрики
+ * и вызывает {@link #start()} / {@link #stop()} вместе с контекстом.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Timer pinned;
+
+    private RecordingStream stream;
+
+    /**
+     * @param meterPrefix префикс таймера, например {@code ewm} — {@code ewm.threads.virtual.pinned}
+     */
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, String meterPrefix, Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = meterRegistry.timer(meterPrefix + ".threads.virtual.pinned");
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        log.warn("Virtual thread pinned for {} ms:\n{}", event.getDuration().toMillis(), frames(event));
+    }
+
+    private static String frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) return "\t<no stack trace>";
+
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(f -> "\tat " + f.getMethod().getType().getName() + "." + f.getMethod().getName()
+                        + ":" + f.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
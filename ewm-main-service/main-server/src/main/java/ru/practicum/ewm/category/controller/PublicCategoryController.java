@@ -1,6 +1,7 @@
 package ru.practicum.ewm.category.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.service.CategoryService;
@@ -15,9 +16,10 @@ public class PublicCategoryController {
     private final CategoryService categoryService;
 
     @GetMapping
-    public List<CategoryDto> getAll(@RequestParam(defaultValue = "0") int from,
-                                    @RequestParam(defaultValue = "10") int size) {
-        return categoryService.getAll(from, size);
+    public ResponseEntity<List<CategoryDto>> getAll(@RequestParam(defaultValue = "0") int from,
+                                                    @RequestParam(defaultValue = "10") int size,
+                                                    @RequestParam(required = false) String after) {
+        return categoryService.getAll(from, size, after).toResponse();
     }
 
     @GetMapping("/{catId}")
@@ -1,9 +1,14 @@
 package ru.practicum.ewm.category.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.ewm.category.model.Category;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByNameIgnoreCase(String name);
+
+    Window<Category> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
 }
\ No newline at end of file
@@ -2,8 +2,7 @@ package ru.practicum.ewm.category.service;
 
 import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.dto.NewCategoryDto;
-
-import java.util.List;
+import ru.practicum.ewm.common.pagination.CursorPage;
 
 public interface CategoryService {
 
@@ -13,7 +12,7 @@ public interface CategoryService {
 
     void delete(Long catId);
 
-    List<CategoryDto> getAll(int from, int size);
+    CursorPage<CategoryDto> getAll(int from, int size, String after);
 
     CategoryDto getById(Long catId);
 }
\ No newline at end of file
@@ -1,23 +1,27 @@
 package ru.practicum.ewm.category.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.dto.NewCategoryDto;
 import ru.practicum.ewm.category.mapper.CategoryMapper;
 import ru.practicum.ewm.category.model.Category;
 import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.common.pagination.CursorPage;
+import ru.practicum.ewm.common.pagination.PageCursor;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
 
-import java.util.List;
-
 @Service
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public CategoryDto create(NewCategoryDto dto) {
@@ -41,7 +45,9 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         category.setName(dto.getName());
-        return CategoryMapper.toDto(categoryRepository.save(category));
+        CategoryDto updated = CategoryMapper.toDto(categoryRepository.save(category));
+        eventPublisher.publishEvent(new CategoryUpdated(catId));
+        return updated;
     }
 
     @Override
@@ -53,11 +59,14 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    public List<CategoryDto> getAll(int from, int size) {
-        PageRequest pageRequest = PageRequest.of(from / size, size);
-        return categoryRepository.findAll(pageRequest)
-                .map(CategoryMapper::toDto)
-                .toList();
+    public CursorPage<CategoryDto> getAll(int from, int size, String after) {
+        ScrollPosition position = after == null ? PageCursor.offset(from) : PageCursor.decodeId(after);
+        Window<Category> categories = categoryRepository.findAllByOrderByIdAsc(position, Limit.of(size));
+        return CursorPage.of(categories,
+                content -> content.stream()
+                        .map(CategoryMapper::toDto)
+                        .toList(),
+                c -> PageCursor.encodeId(c.getId()));
     }
 
     @Override
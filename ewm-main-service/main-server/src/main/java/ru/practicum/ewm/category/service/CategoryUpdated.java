@@ -0,0 +1,8 @@
+package ru.practicum.ewm.category.service;
+
+/**
+ * Изменилась категория (её название входит в DTO событий).
+ * Публикуется внутри транзакции изменения; слушатели получают его после коммита.
+ */
+public record CategoryUpdated(long categoryId) {
+}
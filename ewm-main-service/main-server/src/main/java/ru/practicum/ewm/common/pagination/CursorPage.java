@@ -0,0 +1,37 @@
+package ru.practicum.ewm.common.pagination;
+
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница списка без общего количества: элементы и курсор следующей страницы
+ * ({@code null}, если это последняя страница).
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static <E, T> CursorPage<T> of(Window<E> window,
+                                          Function<List<E>, List<T>> mapper,
+                                          Function<E, String> cursorOf) {
+        List<E> content = window.getContent();
+        String next = window.hasNext() && !content.isEmpty() && cursorOf != null
+                ? cursorOf.apply(content.getLast())
+                : null;
+        return new CursorPage<>(mapper.apply(content), next);
+    }
+
+    /**
+     * Тело ответа — прежний JSON-массив, курсор передаётся в заголовке X-Next-Cursor.
+     */
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.ewm.common.pagination;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: вид сортировки и значения ключа сортировки последнего
+ * элемента страницы (всегда с id в конце), закодированные в base64url. Следующая страница
+ * читается условием по ключу, а не OFFSET, поэтому её стоимость не зависит от глубины.
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    public static String encode(String sortKey, Object... values) {
+        StringJoiner raw = new StringJoiner(SEPARATOR);
+        raw.add(sortKey);
+        for (Object value : values) {
+            raw.add(String.valueOf(value));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор, выданный для той же сортировки.
+     *
+     * @param keys превращает значения курсора в ключи keyset-позиции (имя свойства → значение)
+     * @throws BadRequestException если курсор повреждён или выдан для другой сортировки
+     */
+    public static KeysetScrollPosition decode(String token, String sortKey, Function<String[], Map<String, ?>> keys) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (!parts[0].equals(sortKey)) {
+                throw new IllegalArgumentException("sort mismatch");
+            }
+            return ScrollPosition.forward(keys.apply(Arrays.copyOfRange(parts, 1, parts.length)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Некорректный курсор пагинации: " + token);
+        }
+    }
+
+    public static String encodeId(long id) {
+        return encode("ID", id);
+    }
+
+    public static KeysetScrollPosition decodeId(String token) {
+        return decode(token, "ID", values -> Map.of("id", Long.parseLong(values[0])));
+    }
+
+    /**
+     * Позиция для классической пагинации from/size: from элементов пропускается без подсчёта общего числа.
+     */
+    public static ScrollPosition offset(int from) {
+        return from == 0 ? ScrollPosition.offset() : ScrollPosition.offset(from - 1);
+    }
+}
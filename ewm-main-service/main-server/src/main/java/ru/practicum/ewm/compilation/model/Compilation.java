@@ -29,7 +29,8 @@ public class Compilation {
     @JoinTable(
             name = "compilation_events",
             joinColumns = @JoinColumn(name = "compilation_id"),
-            inverseJoinColumns = @JoinColumn(name = "event_id")
+            inverseJoinColumns = @JoinColumn(name = "event_id"),
+            indexes = @Index(name = "idx_compilation_events_event", columnList = "event_id")
     )
     @OrderBy("id ASC")
     @BatchSize(size = 50)
@@ -1,11 +1,15 @@
 package ru.practicum.ewm.compilation.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.compilation.model.Compilation;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
@@ -14,10 +18,18 @@ public interface CompilationRepository extends JpaRepository<Compilation, Long>
     @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
     Optional<Compilation> findById(Long id);
 
-    @Override
+    // страница — только id: с fetch коллекции events LIMIT/OFFSET применялись бы в памяти ко всей таблице
+    @Query("select c.id from Compilation c")
+    List<Long> findPageIds(Pageable pageable);
+
+    @Query("select c.id from Compilation c where c.pinned = :pinned")
+    List<Long> findPageIdsByPinned(@Param("pinned") boolean pinned, Pageable pageable);
+
+    // события страницы, найденной findPageIds, — одним запросом
     @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
-    Page<Compilation> findAll(Pageable pageable);
+    List<Compilation> findAllByIdIn(Collection<Long> ids, Sort sort);
 
+    // все подборки целиком — для CompilationReadModel
     @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
-    Page<Compilation> findAllByPinned(boolean pinned, Pageable pageable);
+    List<Compilation> findAllByOrderByIdAsc();
 }
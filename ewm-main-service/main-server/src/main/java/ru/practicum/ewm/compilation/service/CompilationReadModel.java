@@ -0,0 +1,226 @@
+package ru.practicum.ewm.compilation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.ewm.category.service.CategoryUpdated;
+import ru.practicum.ewm.compilation.dto.CompilationDto;
+import ru.practicum.ewm.compilation.mapper.CompilationMapper;
+import ru.practicum.ewm.compilation.model.Compilation;
+import ru.practicum.ewm.compilation.repository.CompilationRepository;
+import ru.practicum.ewm.events.dto.EventShortDto;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.service.EventEnricher;
+import ru.practicum.ewm.events.service.EventsUpdated;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Все подборки в виде готовых CompilationDto без просмотров в памяти; включается
+ * ewm.compilations.read-model.enabled. Подборок немного, меняются они редко, а читаются на каждой главной
+ * странице — публичные запросы отвечаются из снимка без обращения к базе.
+ * <p>
+ * Изменение подборки, входящего в неё события (EventsUpdated) или категории (CategoryUpdated) после коммита
+ * делает снимок устаревшим, и следующее чтение собирает его заново. Просмотры в снимок не входят:
+ * при каждом чтении они берутся через кэш просмотров (StatsFacade) только для событий отдаваемых подборок
+ * и проставляются в копии DTO, поэтому снимок не пересобирается ради свежих просмотров.
+ * <p>
+ * Снимок держит все подборки, поэтому ограничен max-size: при большем числе подборок модель не отвечает,
+ * и CompilationServiceImpl читает страницу в SQL. По умолчанию модель выключена.
+ */
+@Component
+public class CompilationReadModel {
+
+    private final CompilationRepository compilationRepository;
+    private final EventEnricher eventEnricher;
+    private final boolean enabled;
+    private final int maxSize;
+
+    // растёт при каждой инвалидации; снимок актуален, пока собран при текущей версии
+    private final AtomicLong version = new AtomicLong();
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot;
+
+    private final Counter rebuilds;
+    private final Counter rebuildFailures;
+
+    public CompilationReadModel(CompilationRepository compilationRepository,
+                                EventEnricher eventEnricher,
+                                MeterRegistry meterRegistry,
+                                @Value("${ewm.compilations.read-model.enabled:false}") boolean enabled,
+                                @Value("${ewm.compilations.read-model.max-size:1000}") int maxSize) {
+        this.compilationRepository = compilationRepository;
+        this.eventEnricher = eventEnricher;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+
+        this.rebuilds = meterRegistry.counter("ewm.compilations.read-model.rebuilds", "result", "success");
+        this.rebuildFailures = meterRegistry.counter("ewm.compilations.read-model.rebuilds", "result", "failure");
+        Gauge.builder("ewm.compilations.read-model.size", this, m -> {
+            Snapshot s = m.snapshot;
+            return s == null ? 0 : s.all().size();
+        }).register(meterRegistry);
+    }
+
+    /**
+     * Страница подборок по возрастанию id.
+     *
+     * @param pinned {@code null} — все подборки
+     * @return пусто, если модель выключена или подборок больше max-size — страницу нужно читать из базы
+     */
+    public Optional<List<CompilationDto>> getPage(Boolean pinned, int from, int size) {
+        Snapshot s = servingSnapshot();
+        if (s == null) return Optional.empty();
+
+        List<CompilationDto> source = pinned == null ? s.all() : pinned ? s.pinned() : s.unpinned();
+        if (from >= source.size()) return Optional.of(List.of());
+
+        return Optional.of(withViews(source.subList(from, Math.min(source.size(), from + size))));
+    }
+
+    /**
+     * @return пусто, если модель не может ответить или подборки нет — тогда её нужно искать в базе
+     */
+    public Optional<CompilationDto> get(long compId) {
+        Snapshot s = servingSnapshot();
+        if (s == null) return Optional.empty();
+
+        return Optional.ofNullable(s.byId().get(compId))
+                .map(c -> withViews(List.of(c)).get(0));
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    // без транзакции (сверка подтверждённых заявок) событие обрабатывается сразу
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsUpdated(EventsUpdated updated) {
+        Snapshot s = snapshot;
+        if (s != null && updated.eventIds().stream().noneMatch(s.eventIds()::contains)) return;
+
+        invalidate();
+    }
+
+    // категорий событий в снимке не хранится, а переименования редки: снимок собирается заново целиком
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryUpdated(CategoryUpdated updated) {
+        invalidate();
+    }
+
+    // снимок общий для всех запросов: просмотры проставляются в копии
+    private List<CompilationDto> withViews(List<CompilationDto> compilations) {
+        Set<Long> ids = new LinkedHashSet<>();
+        compilations.forEach(c -> c.getEvents().forEach(e -> ids.add(e.getId())));
+        Map<Long, Long> views = ids.isEmpty() ? Map.of() : eventEnricher.getViews(ids);
+
+        return compilations.stream()
+                .map(c -> CompilationDto.builder()
+                        .id(c.getId())
+                        .title(c.getTitle())
+                        .pinned(c.getPinned())
+                        .events(c.getEvents().stream()
+                                .map(e -> withViews(e, views.getOrDefault(e.getId(), 0L)))
+                                .toList())
+                        .build())
+                .toList();
+    }
+
+    private static EventShortDto withViews(EventShortDto e, long views) {
+        EventShortDto copy = new EventShortDto();
+        copy.setId(e.getId());
+        copy.setTitle(e.getTitle());
+        copy.setAnnotation(e.getAnnotation());
+        copy.setCategory(e.getCategory());
+        copy.setInitiator(e.getInitiator());
+        copy.setEventDate(e.getEventDate());
+        copy.setPaid(e.getPaid());
+        copy.setConfirmedRequests(e.getConfirmedRequests());
+        copy.setViews(views);
+        return copy;
+    }
+
+    private Snapshot servingSnapshot() {
+        if (!enabled) return null;
+
+        Snapshot s = current();
+        return s.complete() ? s : null;
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null && s.version() == version.get()) return s;
+
+        synchronized (rebuildLock) {
+            s = snapshot;
+            if (s != null && s.version() == version.get()) return s;
+            return rebuild();
+        }
+    }
+
+    // вызывается под rebuildLock
+    private Snapshot rebuild() {
+        // инвалидация во время сборки оставит снимок устаревшим: следующее чтение соберёт его снова
+        long builtAt = version.get();
+        Snapshot s;
+        try {
+            // подборок слишком много для памяти: до следующей инвалидации отвечает SQL
+            if (compilationRepository.count() > maxSize) {
+                s = Snapshot.incomplete(builtAt);
+                snapshot = s;
+                return s;
+            }
+
+            List<Compilation> compilations = compilationRepository.findAllByOrderByIdAsc();
+
+            Map<Long, Set<Event>> eventsByCompilation = new LinkedHashMap<>();
+            compilations.forEach(c -> eventsByCompilation.put(c.getId(), c.getEvents()));
+            Map<Long, List<EventShortDto>> events = eventEnricher.toShortDtosByGroupWithoutViews(eventsByCompilation);
+
+            List<CompilationDto> all = compilations.stream()
+                    .map(c -> CompilationMapper.toDto(c, events.get(c.getId())))
+                    .toList();
+            s = Snapshot.of(builtAt, all, eventsByCompilation.values());
+        } catch (RuntimeException e) {
+            rebuildFailures.increment();
+            throw e;
+        }
+
+        snapshot = s;
+        rebuilds.increment();
+        return s;
+    }
+
+    private record Snapshot(long version,
+                            boolean complete,
+                            List<CompilationDto> all,
+                            List<CompilationDto> pinned,
+                            List<CompilationDto> unpinned,
+                            Map<Long, CompilationDto> byId,
+                            Set<Long> eventIds) {
+
+        static Snapshot of(long version, List<CompilationDto> all, Collection<Set<Event>> events) {
+            Map<Long, CompilationDto> byId = new HashMap<>();
+            all.forEach(c -> byId.put(c.getId(), c));
+
+            Set<Long> eventIds = new HashSet<>();
+            events.forEach(group -> group.forEach(e -> eventIds.add(e.getId())));
+
+            return new Snapshot(version,
+                    true,
+                    all,
+                    all.stream().filter(c -> Boolean.TRUE.equals(c.getPinned())).toList(),
+                    all.stream().filter(c -> !Boolean.TRUE.equals(c.getPinned())).toList(),
+                    byId,
+                    eventIds);
+        }
+
+        static Snapshot incomplete(long version) {
+            return new Snapshot(version, false, List.of(), List.of(), List.of(), Map.of(), Set.of());
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package ru.practicum.ewm.compilation.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.ewm.compilation.dto.CompilationDto;
@@ -10,19 +9,12 @@ import ru.practicum.ewm.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.ewm.compilation.mapper.CompilationMapper;
 import ru.practicum.ewm.compilation.model.Compilation;
 import ru.practicum.ewm.compilation.repository.CompilationRepository;
-import ru.practicum.ewm.events.dto.CategoryDto;
 import ru.practicum.ewm.events.dto.EventShortDto;
-import ru.practicum.ewm.events.dto.UserShortDto;
-import ru.practicum.ewm.events.mapper.EventMapper;
 import ru.practicum.ewm.events.model.Event;
-import ru.practicum.ewm.events.model.RequestStatus;
 import ru.practicum.ewm.events.repository.EventRepository;
-import ru.practicum.ewm.events.repository.ParticipationRequestRepository;
-import ru.practicum.ewm.events.service.StatsFacade;
+import ru.practicum.ewm.events.service.EventEnricher;
 import ru.practicum.ewm.events.util.OffsetBasedPageRequest;
 import ru.practicum.ewm.exception.NotFoundException;
-import ru.practicum.ewm.category.model.Category;
-import ru.practicum.ewm.users.model.User;
 
 import java.util.*;
 
@@ -32,8 +24,8 @@ public class CompilationServiceImpl implements CompilationService {
 
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
-    private final ParticipationRequestRepository requestRepository;
-    private final StatsFacade statsFacade;
+    private final EventEnricher eventEnricher;
+    private final CompilationReadModel readModel;
 
     @Override
     public CompilationDto create(NewCompilationDto dto) {
@@ -46,6 +38,7 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         Compilation saved = compilationRepository.save(c);
+        readModel.invalidate();
         return toDtoWithEvents(saved);
     }
 
@@ -55,6 +48,7 @@ public class CompilationServiceImpl implements CompilationService {
             throw new NotFoundException("Подборка с id= " + compId + " не найдена");
         }
         compilationRepository.deleteById(compId);
+        readModel.invalidate();
     }
 
     @Override
@@ -77,25 +71,44 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         Compilation saved = compilationRepository.save(c);
+        readModel.invalidate();
         return toDtoWithEvents(saved);
     }
 
     @Override
     public List<CompilationDto> getPublicCompilations(Boolean pinned, int from, int size) {
+        Optional<List<CompilationDto>> fromMemory = readModel.getPage(pinned, from, size);
+        if (fromMemory.isPresent()) {
+            return fromMemory.get();
+        }
+
         Sort sort = Sort.by(Sort.Direction.ASC, "id");
         OffsetBasedPageRequest pageable = new OffsetBasedPageRequest(from, size, sort);
 
-        Page<Compilation> page = (pinned == null)
-                ? compilationRepository.findAll(pageable)
-                : compilationRepository.findAllByPinned(pinned, pageable);
+        // сначала страница id в SQL, затем события только этих подборок
+        List<Long> ids = (pinned == null)
+                ? compilationRepository.findPageIds(pageable)
+                : compilationRepository.findPageIdsByPinned(pinned, pageable);
+        if (ids.isEmpty()) return List.of();
+
+        // события всех подборок страницы обогащаются вместе: один запрос просмотров на страницу
+        List<Compilation> compilations = compilationRepository.findAllByIdIn(ids, sort);
+        Map<Long, Set<Event>> eventsByCompilation = new LinkedHashMap<>();
+        compilations.forEach(c -> eventsByCompilation.put(c.getId(), c.getEvents()));
+        Map<Long, List<EventShortDto>> events = eventEnricher.toShortDtosByGroup(eventsByCompilation);
 
-        return page.getContent().stream()
-                .map(this::toDtoWithEvents)
+        return compilations.stream()
+                .map(c -> CompilationMapper.toDto(c, events.get(c.getId())))
                 .toList();
     }
 
     @Override
     public CompilationDto getPublicCompilation(long compId) {
+        Optional<CompilationDto> fromMemory = readModel.get(compId);
+        if (fromMemory.isPresent()) {
+            return fromMemory.get();
+        }
+
         Compilation c = compilationRepository.findById(compId)
                 .orElseThrow(() -> new NotFoundException("Подборка с id= " + compId + " не найдена"));
         return toDtoWithEvents(c);
@@ -116,65 +129,7 @@ public class CompilationServiceImpl implements CompilationService {
     }
 
     private CompilationDto toDtoWithEvents(Compilation c) {
-        List<Event> events = new ArrayList<>(c.getEvents());
-        List<EventShortDto> eventDtos = toShortDtosWithMeta(events);
+        List<EventShortDto> eventDtos = eventEnricher.toShortDtos(new ArrayList<>(c.getEvents()));
         return CompilationMapper.toDto(c, eventDtos);
     }
-
-    private List<EventShortDto> toShortDtosWithMeta(List<Event> events) {
-        if (events == null || events.isEmpty()) return List.of();
-
-        Map<Long, Long> confirmed = getConfirmedMap(events);
-        Map<Long, Long> views = getViewsMap(events);
-
-        return events.stream().map(e -> {
-            EventShortDto dto = EventMapper.toShortDto(e);
-            dto.setCategory(mapCategory(e.getCategory()));
-            dto.setInitiator(mapInitiator(e.getInitiator()));
-            dto.setConfirmedRequests(confirmed.getOrDefault(e.getId(), 0L));
-            dto.setViews(views.getOrDefault(e.getId(), 0L));
-            return dto;
-        }).toList();
-    }
-
-    private Map<Long, Long> getConfirmedMap(List<Event> events) {
-        List<Long> ids = events.stream().map(Event::getId).toList();
-        List<Object[]> rows = requestRepository.countByEventIdsAndStatus(ids, RequestStatus.CONFIRMED);
-
-        Map<Long, Long> result = new HashMap<>();
-        for (Object[] r : rows) {
-            Long eventId = (Long) r[0];
-            Long cnt = (Long) r[1];
-            result.put(eventId, cnt);
-        }
-        return result;
-    }
-
-    private Map<Long, Long> getViewsMap(List<Event> events) {
-        List<String> uris = events.stream()
-                .map(e -> "/events/" + e.getId())
-                .toList();
-
-        Map<String, Long> uriViews = statsFacade.getViews(uris);
-
-        Map<Long, Long> result = new HashMap<>();
-        for (Event e : events) {
-            result.put(e.getId(), uriViews.getOrDefault("/events/" + e.getId(), 0L));
-        }
-        return result;
-    }
-
-    private CategoryDto mapCategory(Category c) {
-        CategoryDto dto = new CategoryDto();
-        dto.setId(c.getId());
-        dto.setName(c.getName());
-        return dto;
-    }
-
-    private UserShortDto mapInitiator(User u) {
-        UserShortDto dto = new UserShortDto();
-        dto.setId(u.getId());
-        dto.setName(u.getName());
-        return dto;
-    }
 }
@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.events.dto.EventFullDto;
@@ -22,14 +23,15 @@ public class AdminEventController {
     private final EventService eventService;
 
     @GetMapping
-    public List<EventFullDto> search(@RequestParam(required = false) List<Long> users,
-                                     @RequestParam(required = false) List<EventState> states,
-                                     @RequestParam(required = false) List<Long> categories,
-                                     @RequestParam(required = false) String rangeStart,
-                                     @RequestParam(required = false) String rangeEnd,
-                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                     @RequestParam(defaultValue = "10") @Positive int size) {
-        return eventService.searchAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+    public ResponseEntity<List<EventFullDto>> search(@RequestParam(required = false) List<Long> users,
+                                                     @RequestParam(required = false) List<EventState> states,
+                                                     @RequestParam(required = false) List<Long> categories,
+                                                     @RequestParam(required = false) String rangeStart,
+                                                     @RequestParam(required = false) String rangeEnd,
+                                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                     @RequestParam(defaultValue = "10") @Positive int size,
+                                                     @RequestParam(required = false) String after) {
+        return eventService.searchAdmin(users, states, categories, rangeStart, rangeEnd, from, size, after).toResponse();
     }
 
     @PatchMapping("/{eventId}")
@@ -3,6 +3,8 @@ package ru.practicum.ewm.events.mapper;
 import ru.practicum.ewm.events.dto.*;
 import ru.practicum.ewm.events.model.Event;
 import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.events.repository.EventFullRow;
+import ru.practicum.ewm.events.repository.EventShortRow;
 
 public final class EventMapper {
 
@@ -49,4 +51,54 @@ public final class EventMapper {
         dto.setLocation(toDto(e.getLocation()));
         return dto;
     }
+
+    public static EventShortDto toShortDto(EventShortRow r) {
+        EventShortDto dto = new EventShortDto();
+        dto.setId(r.id());
+        dto.setTitle(r.title());
+        dto.setAnnotation(r.annotation());
+        dto.setCategory(toCategoryDto(r.categoryId(), r.categoryName()));
+        dto.setInitiator(toUserShortDto(r.initiatorId(), r.initiatorName()));
+        dto.setEventDate(r.eventDate());
+        dto.setPaid(r.paid());
+        dto.setConfirmedRequests(r.confirmedRequests() == null ? 0L : r.confirmedRequests());
+        return dto;
+    }
+
+    public static EventFullDto toFullDto(EventFullRow r) {
+        EventFullDto dto = new EventFullDto();
+        dto.setId(r.id());
+        dto.setTitle(r.title());
+        dto.setAnnotation(r.annotation());
+        dto.setDescription(r.description());
+        dto.setCategory(toCategoryDto(r.categoryId(), r.categoryName()));
+        dto.setInitiator(toUserShortDto(r.initiatorId(), r.initiatorName()));
+        Location location = new Location();
+        location.setLat(r.lat());
+        location.setLon(r.lon());
+        dto.setLocation(location);
+        dto.setPaid(r.paid());
+        dto.setParticipantLimit(r.participantLimit());
+        dto.setRequestModeration(r.requestModeration());
+        dto.setState(r.state());
+        dto.setEventDate(r.eventDate());
+        dto.setCreatedOn(r.createdOn());
+        dto.setPublishedOn(r.publishedOn());
+        dto.setConfirmedRequests(r.confirmedRequests() == null ? 0L : r.confirmedRequests());
+        return dto;
+    }
+
+    private static CategoryDto toCategoryDto(Long id, String name) {
+        CategoryDto dto = new CategoryDto();
+        dto.setId(id);
+        dto.setName(name);
+        return dto;
+    }
+
+    private static UserShortDto toUserShortDto(Long id, String name) {
+        UserShortDto dto = new UserShortDto();
+        dto.setId(id);
+        dto.setName(name);
+        return dto;
+    }
 }
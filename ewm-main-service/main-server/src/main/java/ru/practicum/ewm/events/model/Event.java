@@ -3,6 +3,7 @@ package ru.practicum.ewm.events.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -11,7 +12,16 @@ import ru.practicum.ewm.users.model.User;
 import ru.practicum.ewm.category.model.Category;
 
 @Entity
-@Table(name = "events")
+// индексы совпадают с schema.sql: в тестах схему создаёт Hibernate, и план запросов проверяется на них же
+@Table(
+        name = "events",
+        indexes = {
+                @Index(name = "idx_events_state_date", columnList = "state, event_date, id"),
+                @Index(name = "idx_events_state_views", columnList = "state, views DESC, id"),
+                @Index(name = "idx_events_category_state_date", columnList = "category_id, state, event_date"),
+                @Index(name = "idx_events_initiator", columnList = "initiator_id, id")
+        }
+)
 @Getter
 @Setter
 public class Event {
@@ -65,4 +75,16 @@ public class Event {
 
     @Column(name = "published_on")
     private LocalDateTime publishedOn;
+
+    // копия числа просмотров из сервиса статистики для сортировки VIEWS в БД;
+    // пишется только EventViewsSync, поэтому не участвует в insert/update сущности
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long views;
+
+    // число подтверждённых заявок; меняется только update-запросами EventRepository
+    // в одной транзакции со сменой статуса заявки, расхождения исправляет ConfirmedRequestsReconciler
+    @ColumnDefault("0")
+    @Column(name = "confirmed_requests", nullable = false, insertable = false, updatable = false)
+    private Long confirmedRequests;
 }
@@ -10,7 +10,11 @@ import ru.practicum.ewm.users.model.User;
 @Entity
 @Table(
         name = "participation_requests",
-        uniqueConstraints = @UniqueConstraint(name = "uq_event_requester", columnNames = {"event_id", "requester_id"})
+        uniqueConstraints = @UniqueConstraint(name = "uq_event_requester", columnNames = {"event_id", "requester_id"}),
+        indexes = {
+                @Index(name = "idx_requests_event_status", columnList = "event_id, status"),
+                @Index(name = "idx_requests_requester", columnList = "requester_id, id")
+        }
 )
 @Getter
 @Setter
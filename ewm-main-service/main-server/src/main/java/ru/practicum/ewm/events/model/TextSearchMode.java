@@ -0,0 +1,8 @@
+package ru.practicum.ewm.events.model;
+
+public enum TextSearchMode {
+    // подстрока в аннотации или описании без учёта регистра
+    SUBSTRING,
+    // полнотекстовый поиск по словам с ранжированием по релевантности
+    FULL_TEXT
+}
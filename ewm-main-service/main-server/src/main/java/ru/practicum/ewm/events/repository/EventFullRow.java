@@ -0,0 +1,28 @@
+package ru.practicum.ewm.events.repository;
+
+import ru.practicum.ewm.events.model.EventState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Колонки EventFullDto одной строкой вместе с категорией и инициатором. Не управляется persistence context.
+ */
+public record EventFullRow(Long id,
+                           String title,
+                           String annotation,
+                           String description,
+                           Long categoryId,
+                           String categoryName,
+                           Long initiatorId,
+                           String initiatorName,
+                           Float lat,
+                           Float lon,
+                           Boolean paid,
+                           Integer participantLimit,
+                           Boolean requestModeration,
+                           EventState state,
+                           LocalDateTime eventDate,
+                           LocalDateTime createdOn,
+                           LocalDateTime publishedOn,
+                           Long confirmedRequests) {
+}
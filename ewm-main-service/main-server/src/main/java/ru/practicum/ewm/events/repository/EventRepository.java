@@ -1,8 +1,76 @@
 package ru.practicum.ewm.events.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.RequestStatus;
 
-public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>, EventRowQueries {
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    Optional<Event> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    List<Event> findAllById(Iterable<Long> ids);
+
+    @Query("""
+            select new ru.practicum.ewm.events.repository.EventFullRow(
+                e.id, e.title, e.annotation, e.description, c.id, c.name, u.id, u.name,
+                e.location.lat, e.location.lon, e.paid, e.participantLimit, e.requestModeration, e.state,
+                e.eventDate, e.createdOn, e.publishedOn, e.confirmedRequests)
+            from Event e join e.category c join e.initiator u
+            where e.id = :id and e.state = :state
+            """)
+    Optional<EventFullRow> findFullRowByIdAndState(@Param("id") long id, @Param("state") EventState state);
+
+    @Query("select e.id as id, e.views as views from Event e where e.id in :ids")
+    List<EventViewsProjection> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Event e set e.views = :views where e.id = :id")
+    int updateViews(@Param("id") long id, @Param("views") long views);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Event e set e.confirmedRequests = e.confirmedRequests + :delta where e.id = :id")
+    int addConfirmedRequests(@Param("id") long id, @Param("delta") long delta);
+
+    // атомарная проверка лимита: место занимается, только если после прибавки лимит не превышен
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update Event e set e.confirmedRequests = e.confirmedRequests + :count
+            where e.id = :id
+              and (e.participantLimit = 0 or e.confirmedRequests + :count <= e.participantLimit)
+            """)
+    int tryAddConfirmedRequests(@Param("id") long id, @Param("count") long count);
+
+    @Query("select e.confirmedRequests from Event e where e.id = :id")
+    long findConfirmedRequestsById(@Param("id") long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Event e set e.confirmedRequests = :confirmed where e.id = :id")
+    int setConfirmedRequests(@Param("id") long id, @Param("confirmed") long confirmed);
+
+    @Query("""
+            select e.id from Event e
+            where e.confirmedRequests <> (select count(r.id) from ParticipationRequest r
+                                          where r.event.id = e.id and r.status = :status)
+            """)
+    List<Long> findIdsWithConfirmedRequestsDrift(@Param("status") RequestStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Event e where e.id = :id")
+    Optional<Event> findByIdForUpdate(@Param("id") long id);
 }
@@ -0,0 +1,18 @@
+package ru.practicum.ewm.events.repository;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.events.model.Event;
+
+public interface EventRowQueries {
+
+    /**
+     * Публичный список событий сразу в {@link EventShortRow}: сущности не создаются и не попадают
+     * в persistence context. Пагинация такая же, как у scroll Spring Data: смещение или keyset без count.
+     *
+     * @param sort сортировка; если не задана, порядок может задать сама спецификация
+     */
+    Window<EventShortRow> findShortRows(Specification<Event> spec, Sort sort, ScrollPosition position, int limit);
+}
@@ -0,0 +1,97 @@
+package ru.practicum.ewm.events.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.users.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class EventRowQueriesImpl implements EventRowQueries {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public Window<EventShortRow> findShortRows(Specification<Event> spec, Sort sort, ScrollPosition position, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<EventShortRow> query = cb.createQuery(EventShortRow.class);
+        Root<Event> root = query.from(Event.class);
+        Join<Event, Category> category = root.join("category");
+        Join<Event, User> initiator = root.join("initiator");
+
+        query.select(cb.construct(EventShortRow.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("annotation"),
+                category.get("id"),
+                category.get("name"),
+                initiator.get("id"),
+                initiator.get("name"),
+                root.get("eventDate"),
+                root.get("paid"),
+                root.get("confirmedRequests"),
+                root.get("views")));
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate filter = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (filter != null) where.add(filter);
+        if (position instanceof KeysetScrollPosition keyset && !keyset.isInitial()) {
+            where.add(after(root, cb, sort, keyset.getKeys()));
+        }
+        query.where(where.toArray(Predicate[]::new));
+
+        if (sort.isSorted()) {
+            query.orderBy(sort.stream()
+                    .map(o -> o.isAscending() ? cb.asc(root.get(o.getProperty())) : cb.desc(root.get(o.getProperty())))
+                    .toList());
+        }
+
+        TypedQuery<EventShortRow> typed = em.createQuery(query);
+        long offset = position instanceof OffsetScrollPosition o && !o.isInitial() ? o.getOffset() + 1 : 0;
+        typed.setFirstResult(Math.toIntExact(offset));
+        // лишняя строка показывает, есть ли следующая страница
+        typed.setMaxResults(limit + 1);
+
+        List<EventShortRow> rows = typed.getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<EventShortRow> content = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(content, i -> ScrollPosition.offset(offset + i), hasNext);
+    }
+
+    // (k1 > v1) or (k1 = v1 and k2 > v2) or ... с учётом направления каждого ключа
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(Root<Event> root, CriteriaBuilder cb, Sort sort, Map<String, Object> keys) {
+        List<Sort.Order> orders = sort.toList();
+        if (!keys.keySet().equals(sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet()))) {
+            throw new IllegalArgumentException("Keyset " + keys.keySet() + " does not match sort " + sort);
+        }
+
+        List<Predicate> alternatives = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            List<Predicate> and = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                String property = orders.get(j).getProperty();
+                and.add(cb.equal(root.get(property), keys.get(property)));
+            }
+            Sort.Order order = orders.get(i);
+            Expression<Comparable> path = root.get(order.getProperty());
+            Comparable value = (Comparable) keys.get(order.getProperty());
+            and.add(order.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value));
+            alternatives.add(cb.and(and.toArray(Predicate[]::new)));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+}
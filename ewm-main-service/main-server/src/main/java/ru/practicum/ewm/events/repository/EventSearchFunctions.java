@@ -0,0 +1,43 @@
+package ru.practicum.ewm.events.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * SQL-функции полнотекстового поиска по событиям для Criteria API.
+ * В PostgreSQL выражение совпадает с выражением GIN-индекса idx_events_fts из schema.sql,
+ * поэтому поиск идёт по индексу; в остальных БД (H2 в тестах) — поиск подстроки.
+ */
+public class EventSearchFunctions implements FunctionContributor {
+
+    public static final String MATCH = "ewm_fts_match";
+    public static final String RANK = "ewm_fts_rank";
+
+    private static final String PG_VECTOR = "to_tsvector('russian', ?1 || ' ' || ?2)";
+    private static final String PG_QUERY = "websearch_to_tsquery('russian', ?3)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        var registry = functionContributions.getFunctionRegistry();
+
+        if (functionContributions.getDialect() instanceof PostgreSQLDialect) {
+            registry.registerPattern(MATCH, "(" + PG_VECTOR + " @@ " + PG_QUERY + ")",
+                    types.resolve(StandardBasicTypes.BOOLEAN));
+            registry.registerPattern(RANK, "ts_rank(" + PG_VECTOR + ", " + PG_QUERY + ")",
+                    types.resolve(StandardBasicTypes.DOUBLE));
+            return;
+        }
+
+        registry.registerPattern(MATCH, "(locate(lower(?3), lower(?1)) > 0 or locate(lower(?3), lower(?2)) > 0)",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+        // совпадение в аннотации важнее совпадения в описании
+        registry.registerPattern(RANK,
+                "(case when locate(lower(?3), lower(?1)) > 0 then 2.0"
+                        + " when locate(lower(?3), lower(?2)) > 0 then 1.0 else 0.0 end)",
+                types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
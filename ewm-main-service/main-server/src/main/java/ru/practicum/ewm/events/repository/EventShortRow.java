@@ -0,0 +1,20 @@
+package ru.practicum.ewm.events.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка публичного списка событий: только колонки EventShortDto (без description),
+ * категория и инициатор из того же запроса. Не управляется persistence context.
+ */
+public record EventShortRow(Long id,
+                            String title,
+                            String annotation,
+                            Long categoryId,
+                            String categoryName,
+                            Long initiatorId,
+                            String initiatorName,
+                            LocalDateTime eventDate,
+                            Boolean paid,
+                            Long confirmedRequests,
+                            Long views) {
+}
@@ -9,6 +9,19 @@ import java.util.List;
 
 public final class EventSpecifications {
 
+    // категория и инициатор нужны в каждом DTO: берём их тем же запросом, а не отдельным select на событие.
+    // В count-запросе fetch недопустим, поэтому там только фильтры
+    public static Specification<Event> fetchCategoryAndInitiator() {
+        return (root, query, cb) -> {
+            Class<?> resultType = query.getResultType();
+            if (resultType != Long.class && resultType != long.class) {
+                root.fetch("category", JoinType.INNER);
+                root.fetch("initiator", JoinType.INNER);
+            }
+            return cb.conjunction();
+        };
+    }
+
     public static Specification<Event> stateIn(List<EventState> states) {
         return (root, query, cb) -> {
             if (states == null || states.isEmpty()) return cb.conjunction();
@@ -52,6 +65,23 @@ public final class EventSpecifications {
         };
     }
 
+    public static Specification<Event> fullText(String text) {
+        return (root, query, cb) -> {
+            if (text == null || text.isBlank()) return cb.conjunction();
+            return cb.isTrue(cb.function(EventSearchFunctions.MATCH, Boolean.class,
+                    root.get("annotation"), root.get("description"), cb.literal(text)));
+        };
+    }
+
+    // сортировка по релевантности; в запросе количества Spring Data сортировку отбрасывает
+    public static Specification<Event> orderByRelevance(String text) {
+        return (root, query, cb) -> {
+            Expression<Double> rank = cb.function(EventSearchFunctions.RANK, Double.class,
+                    root.get("annotation"), root.get("description"), cb.literal(text));
+            query.orderBy(cb.desc(rank), cb.asc(root.get("id")));
+            return cb.conjunction();
+        };
+    }
 
 //onlyAvailable=true:
 //participantLimit == 0  => доступно всегда
@@ -61,16 +91,7 @@ public final class EventSpecifications {
             if (onlyAvailable == null || !onlyAvailable) return cb.conjunction();
 
             Predicate unlimited = cb.equal(root.get("participantLimit"), 0);
-
-            Subquery<Long> sub = query.subquery(Long.class);
-            Root<ParticipationRequest> reqRoot = sub.from(ParticipationRequest.class);
-            sub.select(cb.count(reqRoot.get("id")));
-            sub.where(
-                    cb.equal(reqRoot.get("event").get("id"), root.get("id")),
-                    cb.equal(reqRoot.get("status"), RequestStatus.CONFIRMED)
-            );
-
-            Predicate limitNotReached = cb.greaterThan(root.get("participantLimit"), sub);
+            Predicate limitNotReached = cb.lt(root.get("confirmedRequests"), root.get("participantLimit"));
             return cb.or(unlimited, limitNotReached);
         };
     }
@@ -0,0 +1,7 @@
+package ru.practicum.ewm.events.repository;
+
+public interface EventViewsProjection {
+    Long getId();
+
+    Long getViews();
+}
@@ -1,7 +1,9 @@
 package ru.practicum.ewm.events.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.events.model.ParticipationRequest;
 import ru.practicum.ewm.events.model.RequestStatus;
 
@@ -12,20 +14,29 @@ public interface ParticipationRequestRepository extends JpaRepository<Participat
 
     List<ParticipationRequest> findAllByEvent_IdOrderByIdAsc(Long eventId);
 
-    @Query("""
-        select r.event.id as eventId, count(r.id) as cnt
-        from ParticipationRequest r
-        where r.event.id in :eventIds and r.status = :status
-        group by r.event.id
-    """)
-    List<Object[]> countByEventIdsAndStatus(Collection<Long> eventIds, RequestStatus status);
-
     long countByEvent_IdAndStatus(Long eventId, RequestStatus status);
 
     List<ParticipationRequest> findAllByIdIn(Collection<Long> ids);
 
     List<ParticipationRequest> findAllByEvent_IdAndStatus(Long eventId, RequestStatus status);
 
+    // смена статуса только из ожидаемого: параллельная смена того же запроса вернёт меньшее число строк
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update ParticipationRequest r set r.status = :to
+            where r.id in :ids and r.event.id = :eventId and r.status = :from
+            """)
+    int updateStatus(@Param("eventId") long eventId,
+                     @Param("ids") Collection<Long> ids,
+                     @Param("from") RequestStatus from,
+                     @Param("to") RequestStatus to);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ParticipationRequest r set r.status = :to where r.event.id = :eventId and r.status = :from")
+    int updateStatusByEvent(@Param("eventId") long eventId,
+                            @Param("from") RequestStatus from,
+                            @Param("to") RequestStatus to);
+
     boolean existsByEvent_IdAndRequester_Id(Long eventId, Long requesterId);
 
     List<ParticipationRequest> findAllByRequester_IdOrderByIdAsc(Long requesterId);
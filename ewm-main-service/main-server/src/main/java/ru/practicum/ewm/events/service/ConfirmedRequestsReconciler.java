@@ -0,0 +1,93 @@
+package ru.practicum.ewm.events.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.RequestStatus;
+import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.events.repository.ParticipationRequestRepository;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Сверяет events.confirmed_requests с фактическим числом подтверждённых заявок и исправляет расхождения.
+ * Каждое событие пересчитывается под блокировкой строки, поэтому параллельные подтверждения
+ * не теряются: они меняют счётчик под той же блокировкой.
+ */
+@Slf4j
+@Component
+public class ConfirmedRequestsReconciler {
+
+    private final EventRepository eventRepository;
+    private final ParticipationRequestRepository requestRepository;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter fixed;
+    private final boolean enabled;
+
+    public ConfirmedRequestsReconciler(EventRepository eventRepository,
+                                       ParticipationRequestRepository requestRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       ApplicationEventPublisher eventPublisher,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${ewm.confirmed-requests.reconcile.enabled:true}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.requestRepository = requestRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.fixed = meterRegistry.counter("ewm.confirmed.requests.drift.fixed");
+        this.enabled = enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.confirmed-requests.reconcile.interval-ms:3600000}",
+            initialDelayString = "${ewm.confirmed-requests.reconcile.initial-delay-ms:30000}")
+    public void scheduledReconcile() {
+        if (!enabled) return;
+
+        try {
+            int count = reconcile();
+            if (count > 0) {
+                log.warn("Confirmed requests drift fixed for {} event(s)", count);
+            }
+        } catch (Exception e) {
+            log.warn("Confirmed requests reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return количество событий, у которых счётчик был исправлен
+     */
+    public int reconcile() {
+        List<Long> drifted = tx.execute(status -> eventRepository.findIdsWithConfirmedRequestsDrift(RequestStatus.CONFIRMED));
+        if (drifted == null || drifted.isEmpty()) return 0;
+
+        int count = 0;
+        for (Long id : drifted) {
+            if (Boolean.TRUE.equals(tx.execute(status -> reconcileEvent(id)))) {
+                count++;
+            }
+        }
+        fixed.increment(count);
+        return count;
+    }
+
+    private boolean reconcileEvent(long id) {
+        Event event = eventRepository.findByIdForUpdate(id).orElse(null);
+        if (event == null) return false;
+
+        long actual = requestRepository.countByEvent_IdAndStatus(id, RequestStatus.CONFIRMED);
+        if (Objects.equals(event.getConfirmedRequests(), actual)) return false;
+
+        eventRepository.setConfirmedRequests(id, actual);
+        eventPublisher.publishEvent(EventsUpdated.of(id));
+        return true;
+    }
+}
@@ -0,0 +1,164 @@
+package ru.practicum.ewm.events.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.events.dto.CategoryDto;
+import ru.practicum.ewm.events.dto.EventFullDto;
+import ru.practicum.ewm.events.dto.EventShortDto;
+import ru.practicum.ewm.events.dto.UserShortDto;
+import ru.practicum.ewm.events.mapper.EventMapper;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.repository.EventShortRow;
+import ru.practicum.ewm.users.model.User;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Сборка DTO событий с категорией, инициатором, подтверждёнными заявками и просмотрами — общая для всех
+ * endpoint'ов. Подтверждённые заявки берутся из events.confirmed_requests, просмотры всех событий одного
+ * вызова запрашиваются у сервиса статистики одним запросом, в том числе когда события разбиты на группы
+ * (события всех подборок страницы). Просмотры грузятся в фоне, пока собираются DTO.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventEnricher {
+
+    private final StatsFacade statsFacade;
+
+    public List<EventShortDto> toShortDtos(List<Event> events) {
+        if (events == null || events.isEmpty()) return List.of();
+
+        return toShortDtosByGroup(Map.of(0, events)).get(0);
+    }
+
+    /**
+     * Как {@link #toShortDtos}, но для нескольких групп событий сразу: просмотры всех групп —
+     * один запрос к сервису статистики, событие из нескольких групп запрашивается один раз.
+     *
+     * @return DTO по каждой группе в порядке событий группы
+     */
+    public <K> Map<K, List<EventShortDto>> toShortDtosByGroup(Map<K, ? extends Collection<Event>> groups) {
+        Set<Long> ids = new LinkedHashSet<>();
+        groups.values().forEach(events -> events.forEach(e -> ids.add(e.getId())));
+        CompletableFuture<Map<Long, Long>> views = getViewsAsync(ids);
+
+        Map<K, List<EventShortDto>> result = toShortDtosByGroupWithoutViews(groups);
+
+        Map<Long, Long> loaded = views.join();
+        result.values().forEach(dtos -> dtos.forEach(dto -> dto.setViews(loaded.getOrDefault(dto.getId(), 0L))));
+        return result;
+    }
+
+    /**
+     * Как {@link #toShortDtosByGroup}, но без просмотров (views = {@code null}) и без запроса к сервису
+     * статистики: просмотры проставляет вызывающий, например при каждом чтении.
+     */
+    public <K> Map<K, List<EventShortDto>> toShortDtosByGroupWithoutViews(Map<K, ? extends Collection<Event>> groups) {
+        Map<K, List<EventShortDto>> result = new LinkedHashMap<>();
+        groups.forEach((key, events) -> result.put(key, events.stream().map(e -> {
+            EventShortDto dto = EventMapper.toShortDto(e);
+            dto.setCategory(mapCategory(e.getCategory()));
+            dto.setInitiator(mapInitiator(e.getInitiator()));
+            dto.setConfirmedRequests(confirmed(e));
+            return dto;
+        }).toList()));
+        return result;
+    }
+
+    // строки уже содержат категорию, инициатора и заявки: параллельно с запросом просмотров делать нечего
+    public List<EventShortDto> toShortDtosFromRows(List<EventShortRow> rows) {
+        if (rows.isEmpty()) return List.of();
+
+        Map<Long, Long> views = getViews(rows.stream().map(EventShortRow::id).toList());
+
+        return rows.stream().map(r -> {
+            EventShortDto dto = EventMapper.toShortDto(r);
+            dto.setViews(views.getOrDefault(r.id(), 0L));
+            return dto;
+        }).toList();
+    }
+
+    public List<EventFullDto> toFullDtos(List<Event> events) {
+        if (events.isEmpty()) return List.of();
+
+        CompletableFuture<Map<Long, Long>> views = getViewsAsync(events.stream().map(Event::getId).toList());
+
+        List<EventFullDto> dtos = events.stream()
+                .map(this::toFullDtoWithoutViews)
+                .toList();
+
+        Map<Long, Long> loaded = views.join();
+        dtos.forEach(dto -> dto.setViews(loaded.getOrDefault(dto.getId(), 0L)));
+        return dtos;
+    }
+
+    public EventFullDto toFullDto(Event e) {
+        CompletableFuture<Map<Long, Long>> views = getViewsAsync(List.of(e.getId()));
+
+        EventFullDto dto = toFullDtoWithoutViews(e);
+        dto.setViews(views.join().getOrDefault(e.getId(), 0L));
+        return dto;
+    }
+
+    /**
+     * Просмотры по id событий; для событий без просмотров — 0.
+     */
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        return toEventViews(eventIds, statsFacade.getViews(toUris(eventIds)));
+    }
+
+    public CompletableFuture<Map<Long, Long>> getViewsAsync(Collection<Long> eventIds) {
+        return statsFacade.getViewsAsync(toUris(eventIds))
+                .thenApply(uriViews -> toEventViews(eventIds, uriViews));
+    }
+
+    /**
+     * Как {@link #getViewsAsync}, но учитывает хит текущего запроса (см. {@link StatsFacade#getViewsAfterHitAsync}).
+     */
+    public CompletableFuture<Map<Long, Long>> getViewsAfterHitAsync(Collection<Long> eventIds) {
+        return statsFacade.getViewsAfterHitAsync(toUris(eventIds))
+                .thenApply(uriViews -> toEventViews(eventIds, uriViews));
+    }
+
+    private EventFullDto toFullDtoWithoutViews(Event e) {
+        EventFullDto dto = EventMapper.toFullDto(e);
+        dto.setCategory(mapCategory(e.getCategory()));
+        dto.setInitiator(mapInitiator(e.getInitiator()));
+        dto.setConfirmedRequests(confirmed(e));
+        return dto;
+    }
+
+    private static long confirmed(Event e) {
+        return e.getConfirmedRequests() == null ? 0L : e.getConfirmedRequests();
+    }
+
+    private static List<String> toUris(Collection<Long> eventIds) {
+        return eventIds.stream()
+                .map(id -> "/events/" + id)
+                .toList();
+    }
+
+    private static Map<Long, Long> toEventViews(Collection<Long> eventIds, Map<String, Long> uriViews) {
+        Map<Long, Long> result = new HashMap<>();
+        for (Long id : eventIds) {
+            result.put(id, uriViews.getOrDefault("/events/" + id, 0L));
+        }
+        return result;
+    }
+
+    private static CategoryDto mapCategory(Category c) {
+        CategoryDto dto = new CategoryDto();
+        dto.setId(c.getId());
+        dto.setName(c.getName());
+        return dto;
+    }
+
+    private static UserShortDto mapInitiator(User u) {
+        UserShortDto dto = new UserShortDto();
+        dto.setId(u.getId());
+        dto.setName(u.getName());
+        return dto;
+    }
+}
@@ -1,30 +1,35 @@
 package ru.practicum.ewm.events.service;
 
 import jakarta.servlet.http.HttpServletRequest;
+import ru.practicum.ewm.common.pagination.CursorPage;
 import ru.practicum.ewm.events.dto.*;
 import ru.practicum.ewm.events.model.EventState;
 import ru.practicum.ewm.events.model.PublicEventSort;
+import ru.practicum.ewm.events.model.TextSearchMode;
 
 import java.util.List;
 
 public interface EventService {
 
     // public
-    List<EventShortDto> getPublicEvents(String text,
-                                        List<Long> categories,
-                                        Boolean paid,
-                                        String rangeStart,
-                                        String rangeEnd,
-                                        Boolean onlyAvailable,
-                                        PublicEventSort sort,
-                                        int from,
-                                        int size,
-                                        HttpServletRequest request);
+    // after — курсор из предыдущей страницы; если задан, from игнорируется
+    CursorPage<EventShortDto> getPublicEvents(String text,
+                                              TextSearchMode textMode,
+                                              List<Long> categories,
+                                              Boolean paid,
+                                              String rangeStart,
+                                              String rangeEnd,
+                                              Boolean onlyAvailable,
+                                              PublicEventSort sort,
+                                              int from,
+                                              int size,
+                                              String after,
+                                              HttpServletRequest request);
 
     EventFullDto getPublicEvent(long id, HttpServletRequest request);
 
     // private
-    List<EventShortDto> getUserEvents(long userId, int from, int size);
+    CursorPage<EventShortDto> getUserEvents(long userId, int from, int size, String after);
 
     EventFullDto addEvent(long userId, NewEventDto dto);
 
@@ -37,13 +42,14 @@ public interface EventService {
     EventRequestStatusUpdateResult changeRequestStatus(long userId, long eventId, EventRequestStatusUpdateRequest dto);
 
     // admin
-    List<EventFullDto> searchAdmin(List<Long> users,
-                                   List<EventState> states,
-                                   List<Long> categories,
-                                   String rangeStart,
-                                   String rangeEnd,
-                                   int from,
-                                   int size);
+    CursorPage<EventFullDto> searchAdmin(List<Long> users,
+                                         List<EventState> states,
+                                         List<Long> categories,
+                                         String rangeStart,
+                                         String rangeEnd,
+                                         int from,
+                                         int size,
+                                         String after);
 
     EventFullDto updateAdmin(long eventId, UpdateEventAdminRequest dto);
 }
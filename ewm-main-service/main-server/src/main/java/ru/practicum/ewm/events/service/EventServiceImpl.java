@@ -2,7 +2,10 @@ package ru.practicum.ewm.events.service;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,12 +13,15 @@ import ru.practicum.ewm.events.dto.*;
 import ru.practicum.ewm.events.mapper.EventMapper;
 import ru.practicum.ewm.events.mapper.RequestMapper;
 import ru.practicum.ewm.events.model.*;
+import ru.practicum.ewm.events.repository.EventFullRow;
 import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.events.repository.EventShortRow;
 import ru.practicum.ewm.events.repository.EventSpecifications;
 import ru.practicum.ewm.events.repository.ParticipationRequestRepository;
 import ru.practicum.ewm.exception.BadRequestException;
 import ru.practicum.ewm.events.util.DateTimeUtil;
-import ru.practicum.ewm.events.util.OffsetBasedPageRequest;
+import ru.practicum.ewm.common.pagination.CursorPage;
+import ru.practicum.ewm.common.pagination.PageCursor;
 
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
@@ -27,12 +33,17 @@ import ru.practicum.ewm.category.model.Category;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class EventServiceImpl implements EventService {
 
+    private static final String SORT_EVENT_DATE = "EVENT_DATE";
+    private static final String SORT_VIEWS = "VIEWS";
+
     private final EventRepository eventRepository;
     private final ParticipationRequestRepository requestRepository;
 
@@ -40,20 +51,24 @@ public class EventServiceImpl implements EventService {
     private final CategoryRepository categoryRepository;
 
     private final StatsFacade statsFacade;
+    private final EventEnricher eventEnricher;
+    private final ApplicationEventPublisher eventPublisher;
 
     //PUBLIC
 
     @Override
-    public List<EventShortDto> getPublicEvents(String text,
-                                               List<Long> categories,
-                                               Boolean paid,
-                                               String rangeStart,
-                                               String rangeEnd,
-                                               Boolean onlyAvailable,
-                                               PublicEventSort sort,
-                                               int from,
-                                               int size,
-                                               HttpServletRequest request) {
+    public CursorPage<EventShortDto> getPublicEvents(String text,
+                                                     TextSearchMode textMode,
+                                                     List<Long> categories,
+                                                     Boolean paid,
+                                                     String rangeStart,
+                                                     String rangeEnd,
+                                                     Boolean onlyAvailable,
+                                                     PublicEventSort sort,
+                                                     int from,
+                                                     int size,
+                                                     String after,
+                                                     HttpServletRequest request) {
 
         statsFacade.hit(request);
 
@@ -71,57 +86,74 @@ public class EventServiceImpl implements EventService {
             throw new BadRequestException("Дата окончания не может быть раньше даты начала!");
         }
 
+        boolean fullText = textMode == TextSearchMode.FULL_TEXT && text != null && !text.isBlank();
+
         Specification<Event> spec = Specification.where(EventSpecifications.stateIn(List.of(EventState.PUBLISHED)))
-                .and(EventSpecifications.text(text))
+                .and(fullText ? EventSpecifications.fullText(text) : EventSpecifications.text(text))
                 .and(EventSpecifications.categoryIn(categories))
                 .and(EventSpecifications.paid(paid))
                 .and(EventSpecifications.eventDateAfter(start))
                 .and(EventSpecifications.eventDateBefore(end))
                 .and(EventSpecifications.onlyAvailable(onlyAvailable));
 
+        // VIEWS: по колонке views, которую синхронизирует EventViewsSync; EVENT_DATE (или null): по eventDate;
+        // полнотекстовый поиск без явной сортировки — по релевантности. id в конце делает порядок однозначным
+        Sort dbSort;
+        Function<EventShortRow, String> cursorOf;
+        ScrollPosition position;
         if (sort == PublicEventSort.VIEWS) {
-            List<Event> all = eventRepository.findAll(spec);
-            List<EventShortDto> mapped = toShortDtosWithMeta(all);
-            mapped.sort(
-                    Comparator.comparingLong((EventShortDto d) -> d.getViews() == null ? 0L : d.getViews())
-                            .reversed()
-            );
-
-            return slice(mapped, from, size);
+            dbSort = Sort.by(Sort.Direction.DESC, "views").and(Sort.by(Sort.Direction.ASC, "id"));
+            cursorOf = r -> PageCursor.encode(SORT_VIEWS, r.views() == null ? 0L : r.views(), r.id());
+            position = after == null ? PageCursor.offset(from) : PageCursor.decode(after, SORT_VIEWS,
+                    v -> Map.of("views", Long.parseLong(v[0]), "id", Long.parseLong(v[1])));
+        } else if (sort == null && fullText) {
+            // ранг вычисляется в запросе, ключа для курсора нет — только from/size
+            if (after != null) {
+                throw new BadRequestException("Курсор не поддерживается при сортировке по релевантности");
+            }
+            dbSort = Sort.unsorted();
+            spec = spec.and(EventSpecifications.orderByRelevance(text));
+            cursorOf = null;
+            position = PageCursor.offset(from);
+        } else {
+            dbSort = Sort.by(Sort.Direction.ASC, "eventDate").and(Sort.by(Sort.Direction.ASC, "id"));
+            cursorOf = r -> PageCursor.encode(SORT_EVENT_DATE, r.eventDate(), r.id());
+            position = after == null ? PageCursor.offset(from) : PageCursor.decode(after, SORT_EVENT_DATE,
+                    v -> Map.of("eventDate", LocalDateTime.parse(v[0]), "id", Long.parseLong(v[1])));
         }
 
-        // EVENT_DATE (или null): сортируем по eventDate в БД
-        Sort dbSort = Sort.by(Sort.Direction.ASC, "eventDate");
-        OffsetBasedPageRequest pageable = new OffsetBasedPageRequest(from, size, dbSort);
-
-        List<Event> page = eventRepository.findAll(spec, pageable).getContent();
-        return toShortDtosWithMeta(page);
+        // самый нагруженный endpoint: строки сразу в DTO, без сущностей и description
+        Window<EventShortRow> window = eventRepository.findShortRows(spec, dbSort, position, size);
+        return CursorPage.of(window, eventEnricher::toShortDtosFromRows, cursorOf);
     }
 
     @Override
     public EventFullDto getPublicEvent(long id, HttpServletRequest request) {
         statsFacade.hit(request);
 
-        Event event = eventRepository.findById(id)
-                .filter(e -> e.getState() == EventState.PUBLISHED)
+        // URI известен до чтения события: просмотры загружаются параллельно с запросом в базу
+        // и уже с учётом хита этого запроса
+        CompletableFuture<Map<Long, Long>> views = eventEnricher.getViewsAfterHitAsync(List.of(id));
+
+        EventFullRow row = eventRepository.findFullRowByIdAndState(id, EventState.PUBLISHED)
                 .orElseThrow(() -> new NotFoundException("Событие в id= " + id + " не найдено!"));
 
-        return toFullDtoWithMeta(event);
+        EventFullDto dto = EventMapper.toFullDto(row);
+        dto.setViews(views.join().getOrDefault(row.id(), 0L));
+        return dto;
     }
 
     //PRIVATE
 
     @Override
-    public List<EventShortDto> getUserEvents(long userId, int from, int size) {
+    public CursorPage<EventShortDto> getUserEvents(long userId, int from, int size, String after) {
         ensureUserExists(userId);
 
-        OffsetBasedPageRequest pageable = new OffsetBasedPageRequest(from, size, Sort.by("id").ascending());
-        List<Event> events = eventRepository.findAll(
-                (root, query, cb) -> cb.equal(root.get("initiator").get("id"), userId),
-                pageable
-        ).getContent();
+        Specification<Event> spec = Specification.where(EventSpecifications.fetchCategoryAndInitiator())
+                .and(EventSpecifications.initiatorIn(List.of(userId)));
+        Window<Event> window = findByIdOrder(spec, from, size, after);
 
-        return toShortDtosWithMeta(events);
+        return CursorPage.of(window, eventEnricher::toShortDtos, e -> PageCursor.encodeId(e.getId()));
     }
 
     @Override
@@ -157,7 +189,7 @@ public class EventServiceImpl implements EventService {
 
         Event saved = eventRepository.save(e);
 
-        EventFullDto out = toFullDtoWithMeta(saved);
+        EventFullDto out = eventEnricher.toFullDto(saved);
         out.setViews(0L);
         out.setConfirmedRequests(0L);
         return out;
@@ -174,7 +206,7 @@ public class EventServiceImpl implements EventService {
             throw new NotFoundException("Событие с id=" + userId + " не найдено!");
         }
 
-        return toFullDtoWithMeta(e);
+        return eventEnricher.toFullDto(e);
     }
 
     @Override
@@ -200,8 +232,9 @@ public class EventServiceImpl implements EventService {
         }
 
         applyUserUpdate(e, dto);
+        eventPublisher.publishEvent(EventsUpdated.of(eventId));
 
-        return toFullDtoWithMeta(eventRepository.save(e));
+        return eventEnricher.toFullDto(eventRepository.save(e));
     }
 
     @Override
@@ -248,81 +281,72 @@ public class EventServiceImpl implements EventService {
         }
 
         EventRequestStatusUpdateResult result = new EventRequestStatusUpdateResult();
-
-        // если лимит 0 или модерация выключена — подтверждение не требуется
-        if (e.getParticipantLimit() == 0 || !Boolean.TRUE.equals(e.getRequestModeration())) {
-            for (ParticipationRequest r : requests) {
-                if (dto.getStatus() == RequestUpdateStatus.CONFIRMED) {
-                    r.setStatus(RequestStatus.CONFIRMED);
-                    result.getConfirmedRequests().add(RequestMapper.toDto(r));
-                } else {
-                    r.setStatus(RequestStatus.REJECTED);
-                    result.getRejectedRequests().add(RequestMapper.toDto(r));
-                }
+        List<Long> ids = requests.stream().map(ParticipationRequest::getId).toList();
+        boolean confirm = dto.getStatus() == RequestUpdateStatus.CONFIRMED;
+        // лимит 0 — без ограничения числа участников
+        boolean limited = e.getParticipantLimit() > 0;
+
+        // места под все заявки занимаем одним атомарным update: параллельные подтверждения
+        // сериализуются на строке события и не могут вместе превысить лимит. Лимит действует
+        // и без модерации: заявки, поданные до её отключения, остаются в PENDING
+        if (confirm) {
+            int admitted = limited
+                    ? eventRepository.tryAddConfirmedRequests(eventId, ids.size())
+                    : eventRepository.addConfirmedRequests(eventId, ids.size());
+            if (admitted == 0) {
+                throw new ConflictException("Превышено допустимое количество участников!");
             }
-            requestRepository.saveAll(requests);
-            return result;
         }
 
-        long confirmed = requestRepository.countByEvent_IdAndStatus(eventId, RequestStatus.CONFIRMED);
-        int limit = e.getParticipantLimit();
+        RequestStatus target = confirm ? RequestStatus.CONFIRMED : RequestStatus.REJECTED;
+        if (requestRepository.updateStatus(eventId, ids, RequestStatus.PENDING, target) != ids.size()) {
+            throw new ConflictException("Изменение статуса допускается исключительно для запросов в статусе PENDING!");
+        }
 
-        if (dto.getStatus() == RequestUpdateStatus.CONFIRMED) {
-            for (ParticipationRequest r : requests) {
-                if (confirmed >= limit) {
-                    throw new ConflictException("Превышено допустимое количество участников!");
-                }
-                r.setStatus(RequestStatus.CONFIRMED);
-                confirmed++;
+        for (ParticipationRequest r : requests) {
+            r.setStatus(target);
+            if (confirm) {
                 result.getConfirmedRequests().add(RequestMapper.toDto(r));
+            } else {
+                result.getRejectedRequests().add(RequestMapper.toDto(r));
             }
-            requestRepository.saveAll(requests);
-
-            // если лимит исчерпан — отклонить все оставшиеся pending
-            if (confirmed >= limit) {
-                List<ParticipationRequest> pending = requestRepository.findAllByEvent_IdAndStatus(eventId, RequestStatus.PENDING);
-                for (ParticipationRequest p : pending) {
-                    p.setStatus(RequestStatus.REJECTED);
-                }
-                requestRepository.saveAll(pending);
-            }
-
-            return result;
         }
 
-        // REJECTED
-        for (ParticipationRequest r : requests) {
-            r.setStatus(RequestStatus.REJECTED);
-            result.getRejectedRequests().add(RequestMapper.toDto(r));
+        // если лимит исчерпан — отклонить все оставшиеся pending
+        if (confirm && limited && eventRepository.findConfirmedRequestsById(eventId) >= e.getParticipantLimit()) {
+            requestRepository.updateStatusByEvent(eventId, RequestStatus.PENDING, RequestStatus.REJECTED);
+        }
+        if (confirm) {
+            eventPublisher.publishEvent(EventsUpdated.of(eventId));
         }
-        requestRepository.saveAll(requests);
         return result;
     }
 
     //ADMIN
 
     @Override
-    public List<EventFullDto> searchAdmin(List<Long> users,
-                                          List<EventState> states,
-                                          List<Long> categories,
-                                          String rangeStart,
-                                          String rangeEnd,
-                                          int from,
-                                          int size) {
+    public CursorPage<EventFullDto> searchAdmin(List<Long> users,
+                                                List<EventState> states,
+                                                List<Long> categories,
+                                                String rangeStart,
+                                                String rangeEnd,
+                                                int from,
+                                                int size,
+                                                String after) {
 
         LocalDateTime start = DateTimeUtil.parseNullable(rangeStart);
         LocalDateTime end = DateTimeUtil.parseNullable(rangeEnd);
 
-        Specification<Event> spec = Specification.where(EventSpecifications.initiatorIn(users))
+        Specification<Event> spec = Specification.where(EventSpecifications.fetchCategoryAndInitiator())
+                .and(EventSpecifications.initiatorIn(users))
                 .and(EventSpecifications.stateIn(states))
                 .and(EventSpecifications.categoryIn(categories))
                 .and(EventSpecifications.eventDateAfter(start))
                 .and(EventSpecifications.eventDateBefore(end));
 
-        OffsetBasedPageRequest pageable = new OffsetBasedPageRequest(from, size, Sort.by("id").ascending());
-        List<Event> events = eventRepository.findAll(spec, pageable).getContent();
+        Window<Event> window = findByIdOrder(spec, from, size, after);
 
-        return toFullDtosWithMeta(events);
+        return CursorPage.of(window, eventEnricher::toFullDtos, e -> PageCursor.encodeId(e.getId()));
     }
 
     @Override
@@ -335,12 +359,19 @@ public class EventServiceImpl implements EventService {
         if (dto.getEventDate() != null && dto.getEventDate().isBefore(LocalDateTime.now())) {
             throw new BadRequestException("Дата событие не может быть в прошлом!");
         }
+        eventPublisher.publishEvent(EventsUpdated.of(eventId));
 
-        return toFullDtoWithMeta(eventRepository.save(e));
+        return eventEnricher.toFullDto(eventRepository.save(e));
     }
 
     //helpers
 
+    // без count(*): Window дочитывает один лишний элемент, чтобы понять, есть ли следующая страница
+    private Window<Event> findByIdOrder(Specification<Event> spec, int from, int size, String after) {
+        ScrollPosition position = after == null ? PageCursor.offset(from) : PageCursor.decodeId(after);
+        return eventRepository.findBy(spec, q -> q.sortBy(Sort.by("id").ascending()).limit(size).scroll(position));
+    }
+
     private void ensureUserExists(long userId) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException("Пользователь с id=" + userId + " не найден!");
@@ -409,99 +440,4 @@ public class EventServiceImpl implements EventService {
             }
         }
     }
-
-    private List<EventShortDto> toShortDtosWithMeta(List<Event> events) {
-        if (events.isEmpty()) return List.of();
-
-        Map<Long, Long> confirmed = getConfirmedMap(events);
-        Map<Long, Long> views = getViewsMap(events);
-
-        return events.stream().map(e -> {
-            EventShortDto dto = EventMapper.toShortDto(e);
-
-            dto.setCategory(mapCategory(e.getCategory()));
-            dto.setInitiator(mapInitiator(e.getInitiator()));
-
-            dto.setConfirmedRequests(confirmed.getOrDefault(e.getId(), 0L));
-            dto.setViews(views.getOrDefault(e.getId(), 0L));
-            return dto;
-        }).toList();
-    }
-
-    private List<EventFullDto> toFullDtosWithMeta(List<Event> events) {
-        if (events.isEmpty()) return List.of();
-
-        Map<Long, Long> confirmed = getConfirmedMap(events);
-        Map<Long, Long> views = getViewsMap(events);
-
-        return events.stream().map(e -> {
-            EventFullDto dto = EventMapper.toFullDto(e);
-
-            dto.setCategory(mapCategory(e.getCategory()));
-            dto.setInitiator(mapInitiator(e.getInitiator()));
-
-            dto.setConfirmedRequests(confirmed.getOrDefault(e.getId(), 0L));
-            dto.setViews(views.getOrDefault(e.getId(), 0L));
-            return dto;
-        }).toList();
-    }
-
-    private EventFullDto toFullDtoWithMeta(Event e) {
-        Map<Long, Long> confirmed = getConfirmedMap(List.of(e));
-        Map<Long, Long> views = getViewsMap(List.of(e));
-
-        EventFullDto dto = EventMapper.toFullDto(e);
-        dto.setCategory(mapCategory(e.getCategory()));
-        dto.setInitiator(mapInitiator(e.getInitiator()));
-        dto.setConfirmedRequests(confirmed.getOrDefault(e.getId(), 0L));
-        dto.setViews(views.getOrDefault(e.getId(), 0L));
-        return dto;
-    }
-
-    private Map<Long, Long> getConfirmedMap(List<Event> events) {
-        List<Long> ids = events.stream().map(Event::getId).toList();
-        List<Object[]> rows = requestRepository.countByEventIdsAndStatus(ids, RequestStatus.CONFIRMED);
-
-        Map<Long, Long> result = new HashMap<>();
-        for (Object[] r : rows) {
-            Long eventId = (Long) r[0];
-            Long cnt = (Long) r[1];
-            result.put(eventId, cnt);
-        }
-        return result;
-    }
-
-    private Map<Long, Long> getViewsMap(List<Event> events) {
-        List<String> uris = events.stream()
-                .map(e -> "/events/" + e.getId())
-                .toList();
-
-        Map<String, Long> uriViews = statsFacade.getViews(uris);
-
-        Map<Long, Long> result = new HashMap<>();
-        for (Event e : events) {
-            result.put(e.getId(), uriViews.getOrDefault("/events/" + e.getId(), 0L));
-        }
-        return result;
-    }
-
-    private <T> List<T> slice(List<T> list, int from, int size) {
-        if (from >= list.size()) return List.of();
-        int to = Math.min(list.size(), from + size);
-        return list.subList(from, to);
-    }
-
-    private CategoryDto mapCategory(Category c) {
-        CategoryDto dto = new CategoryDto();
-        dto.setId(c.getId());
-        dto.setName(c.getName());
-        return dto;
-    }
-
-    private UserShortDto mapInitiator(User u) {
-        UserShortDto dto = new UserShortDto();
-        dto.setId(u.getId());
-        dto.setName(u.getName());
-        return dto;
-    }
 }
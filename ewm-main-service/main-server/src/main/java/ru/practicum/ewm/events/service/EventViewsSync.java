@@ -0,0 +1,141 @@
+package ru.practicum.ewm.events.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.events.repository.EventViewsProjection;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Переносит просмотры из сервиса статистики в колонку events.views,
+ * по которой публичный поиск сортирует события при sort=VIEWS.
+ * Обновляются только строки, у которых число просмотров изменилось.
+ * <p>
+ * Синхронизация инкрементальная: запрашиваются только URI, по которым были хиты с прошлого запуска
+ * (с запасом lookback на хиты, дошедшие из очереди или файла переполнения с опозданием), и для них —
+ * уникальные просмотры за всё время. Уникальные просмотры не складываются, поэтому дельты не используются.
+ * Полная синхронизация по всем URI — при первом запуске и раз в full-sync-interval-ms.
+ */
+@Slf4j
+@Component
+public class EventViewsSync {
+
+    private static final Pattern EVENT_URI = Pattern.compile("^/events/(\\d+)$");
+
+    // URI передаются в query string: длина строки запроса ограничена
+    private static final int STATS_URIS_PER_REQUEST = 100;
+
+    private final StatsFacade statsFacade;
+    private final EventRepository eventRepository;
+    private final TransactionTemplate tx;
+
+    private final boolean enabled;
+    private final int chunkSize;
+    private final long lookbackMs;
+    private final long fullSyncIntervalMs;
+
+    // начало последней успешной синхронизации; под монитором this
+    private LocalDateTime lastSync;
+    private LocalDateTime lastFullSync;
+
+    public EventViewsSync(StatsFacade statsFacade,
+                          EventRepository eventRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${stats-server.views-sync.enabled:true}") boolean enabled,
+                          @Value("${stats-server.views-sync.chunk-size:1000}") int chunkSize,
+                          @Value("${stats-server.views-sync.lookback-ms:300000}") long lookbackMs,
+                          @Value("${stats-server.views-sync.full-sync-interval-ms:86400000}") long fullSyncIntervalMs) {
+        this.statsFacade = statsFacade;
+        this.eventRepository = eventRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.lookbackMs = lookbackMs;
+        this.fullSyncIntervalMs = fullSyncIntervalMs;
+    }
+
+    @Scheduled(fixedDelayString = "${stats-server.views-sync.interval-ms:60000}",
+            initialDelayString = "${stats-server.views-sync.interval-ms:60000}")
+    public void scheduledSync() {
+        if (!enabled) return;
+
+        try {
+            int updated = sync();
+            if (updated > 0) {
+                log.info("Views sync: updated {} event(s)", updated);
+            }
+        } catch (Exception e) {
+            log.warn("Views sync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return количество событий, у которых обновились просмотры
+     */
+    public synchronized int sync() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        boolean full = lastSync == null
+                || !startedAt.isBefore(lastFullSync.plus(fullSyncIntervalMs, ChronoUnit.MILLIS));
+
+        Map<Long, Long> views = new HashMap<>();
+        Map<String, Long> uriViews = full ? statsFacade.getAllViews() : getViewsOfRecentlyHit();
+        uriViews.forEach((uri, hits) -> {
+            Long id = eventId(uri);
+            if (id != null) {
+                views.put(id, hits);
+            }
+        });
+
+        List<Long> ids = new ArrayList<>(views.keySet());
+        int updated = 0;
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + chunkSize));
+            Integer done = tx.execute(status -> syncChunk(chunk, views));
+            updated += done == null ? 0 : done;
+        }
+
+        lastSync = startedAt;
+        if (full) {
+            lastFullSync = startedAt;
+        }
+        return updated;
+    }
+
+    private Map<String, Long> getViewsOfRecentlyHit() {
+        LocalDateTime since = lastSync.minus(lookbackMs, ChronoUnit.MILLIS);
+        List<String> uris = statsFacade.getUrisHitSince(since).stream()
+                .filter(uri -> eventId(uri) != null)
+                .toList();
+
+        Map<String, Long> result = new HashMap<>();
+        for (int i = 0; i < uris.size(); i += STATS_URIS_PER_REQUEST) {
+            result.putAll(statsFacade.getAllViews(uris.subList(i, Math.min(uris.size(), i + STATS_URIS_PER_REQUEST))));
+        }
+        return result;
+    }
+
+    private static Long eventId(String uri) {
+        Matcher m = EVENT_URI.matcher(uri);
+        return m.matches() ? Long.parseLong(m.group(1)) : null;
+    }
+
+    private int syncChunk(List<Long> ids, Map<Long, Long> views) {
+        int updated = 0;
+        for (EventViewsProjection current : eventRepository.findViewsByIdIn(ids)) {
+            long actual = views.get(current.getId());
+            if (current.getViews() == null || current.getViews() != actual) {
+                updated += eventRepository.updateViews(current.getId(), actual);
+            }
+        }
+        return updated;
+    }
+}
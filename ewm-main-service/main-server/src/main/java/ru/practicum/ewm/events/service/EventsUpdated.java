@@ -0,0 +1,15 @@
+package ru.practicum.ewm.events.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Изменились поля событий, видимые в их DTO (в том числе подтверждённые заявки).
+ * Публикуется внутри транзакции изменения; слушатели получают его после коммита.
+ */
+public record EventsUpdated(Collection<Long> eventIds) {
+
+    public static EventsUpdated of(long eventId) {
+        return new EventsUpdated(List.of(eventId));
+    }
+}
@@ -0,0 +1,230 @@
+package ru.practicum.ewm.events.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Автомат защиты для синхронных обращений к сервису статистики.
+ * CLOSED — вызовы идут в сервис; failure-threshold неудач подряд (ошибка или превышение call-timeout)
+ * открывают автомат. OPEN — вызовы сразу отклоняются; через open-ms автомат переходит в HALF_OPEN
+ * и пропускает один пробный вызов: успех закрывает автомат, неудача снова открывает.
+ * <p>
+ * Вызов выполняется в отдельном пуле не больше чем на max-concurrent-calls потоков,
+ * поэтому поток запроса ждёт ответа не дольше call-timeout. При spring.threads.virtual.enabled
+ * потоки пула виртуальные: ожидание ответа stats-server не занимает поток платформы.
+ */
+@Slf4j
+@Component
+public class StatsCircuitBreaker {
+
+    // порядок задаёт значение метрики ewm.stats.circuit.state
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Вызов не выполнялся: автомат открыт или пул вызовов занят.
+     */
+    public static class CallNotPermittedException extends IllegalStateException {
+        public CallNotPermittedException(String message) {
+            super(message);
+        }
+    }
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long callTimeoutMs;
+    private final LongSupplier nanoClock;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+
+    // состояние — под монитором this
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    private final Counter successes;
+    private final Counter errors;
+    private final Counter timeouts;
+    private final Counter rejected;
+
+    @Autowired
+    public StatsCircuitBreaker(MeterRegistry meterRegistry,
+                               @Value("${stats-server.circuit-breaker.enabled:true}") boolean enabled,
+                               @Value("${stats-server.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${stats-server.circuit-breaker.open-ms:10000}") long openMs,
+                               @Value("${stats-server.circuit-breaker.call-timeout-ms:1000}") long callTimeoutMs,
+                               @Value("${stats-server.circuit-breaker.max-concurrent-calls:20}") int maxConcurrentCalls,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(meterRegistry, enabled, failureThreshold, openMs, callTimeoutMs, maxConcurrentCalls, virtualThreads,
+                System::nanoTime);
+    }
+
+    StatsCircuitBreaker(MeterRegistry meterRegistry,
+                        boolean enabled,
+                        int failureThreshold,
+                        long openMs,
+                        long callTimeoutMs,
+                        int maxConcurrentCalls,
+                        boolean virtualThreads,
+                        LongSupplier nanoClock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("circuit-breaker.failure-threshold must be greater than zero");
+        }
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("circuit-breaker.max-concurrent-calls must be greater than zero");
+        }
+
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.callTimeoutMs = callTimeoutMs;
+        this.nanoClock = nanoClock;
+        this.meterRegistry = meterRegistry;
+
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("stats-call-", 1).factory()
+                : Thread.ofPlatform().name("stats-call-", 1).daemon().factory();
+        this.executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threads);
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.successes = meterRegistry.counter("ewm.stats.circuit.calls", "result", "success");
+        this.errors = meterRegistry.counter("ewm.stats.circuit.calls", "result", "failure");
+        this.timeouts = meterRegistry.counter("ewm.stats.circuit.calls", "result", "timeout");
+        this.rejected = meterRegistry.counter("ewm.stats.circuit.calls", "result", "rejected");
+        Gauge.builder("ewm.stats.circuit.state", this, b -> b.state().ordinal()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Выполняет action, если автомат это допускает.
+     *
+     * @throws CallNotPermittedException если вызов отклонён без обращения к сервису
+     * @throws IllegalStateException     если вызов не уложился в call-timeout
+     */
+    public <T> T call(Supplier<T> action) {
+        if (!enabled) return action.get();
+
+        acquire();
+        T result;
+        try {
+            result = execute(action);
+        } catch (CallNotPermittedException e) {
+            release();
+            throw e;
+        } catch (RuntimeException e) {
+            onFailure();
+            throw e;
+        }
+        onSuccess();
+        return result;
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized void acquire() {
+        State current = state();
+        if (current == State.CLOSED) return;
+
+        if (current == State.HALF_OPEN && !probing) {
+            transition(State.HALF_OPEN);
+            probing = true;
+            return;
+        }
+        rejected.increment();
+        throw new CallNotPermittedException("stats-server circuit is " + current);
+    }
+
+    private synchronized void release() {
+        probing = false;
+    }
+
+    private <T> T execute(Supplier<T> action) {
+        Future<T> future;
+        try {
+            future = executor.submit(action::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new CallNotPermittedException("stats-server calls limit reached");
+        }
+
+        try {
+            T result = future.get(callTimeoutMs, TimeUnit.MILLISECONDS);
+            successes.increment();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.increment();
+            throw new IllegalStateException("stats-server call timed out after " + callTimeoutMs + " ms");
+        } catch (ExecutionException e) {
+            errors.increment();
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for stats-server", e);
+        }
+    }
+
+    private synchronized void onSuccess() {
+        failures = 0;
+        probing = false;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    private synchronized void onFailure() {
+        failures++;
+        boolean probeFailed = probing;
+        probing = false;
+        if (probeFailed || (state == State.CLOSED && failures >= failureThreshold)) {
+            openedAt = nanoClock.getAsLong();
+            transition(State.OPEN);
+        }
+    }
+
+    private void transition(State to) {
+        if (state == to) return;
+
+        if (to == State.CLOSED) {
+            log.info("Stats circuit {} -> {}", state, to);
+        } else {
+            log.warn("Stats circuit {} -> {} after {} failure(s)", state, to, failures);
+        }
+        meterRegistry.counter("ewm.stats.circuit.transitions", "from", state.name(), "to", to.name()).increment();
+        state = to;
+    }
+}
@@ -1,24 +1,27 @@
 package ru.practicum.ewm.events.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import ru.practicum.stats.client.StatsClient;
 import ru.practicum.stats.dto.EndpointHitDto;
-import ru.practicum.stats.dto.ViewStatsDto;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static ru.practicum.ewm.events.util.DateTimeUtil.FORMATTER;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class StatsFacade {
 
     private static final String APP = "ewm-main-service";
@@ -26,8 +29,49 @@ public class StatsFacade {
     private static final String FALLBACK_TEST_IP = "121.0.0.1";
 
     private final StatsClient statsClient;
-    private final ObjectMapper objectMapper;
+    private final StatsHitBuffer hitBuffer;
+    private final ViewsCache viewsCache;
+    private final StatsCircuitBreaker circuitBreaker;
+    private final boolean flushBeforeRead;
+    private final boolean approximateViews;
+    private final boolean viewsCacheEnabled;
+    private final long viewsDeadlineMs;
+    private final ThreadPoolExecutor viewsExecutor;
 
+    public StatsFacade(StatsClient statsClient,
+                       StatsHitBuffer hitBuffer,
+                       ViewsCache viewsCache,
+                       StatsCircuitBreaker circuitBreaker,
+                       @Value("${stats-server.hits.flush-before-read:false}") boolean flushBeforeRead,
+                       @Value("${stats-server.approximate-views:false}") boolean approximateViews,
+                       @Value("${stats-server.views-cache.enabled:true}") boolean viewsCacheEnabled,
+                       @Value("${stats-server.views-async.max-threads:16}") int viewsAsyncThreads,
+                       @Value("${stats-server.views-async.deadline-ms:2000}") long viewsDeadlineMs,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.statsClient = statsClient;
+        this.hitBuffer = hitBuffer;
+        this.viewsCache = viewsCache;
+        this.circuitBreaker = circuitBreaker;
+        this.flushBeforeRead = flushBeforeRead;
+        this.approximateViews = approximateViews;
+        this.viewsCacheEnabled = viewsCacheEnabled;
+        this.viewsDeadlineMs = viewsDeadlineMs;
+
+        // при занятых потоках просмотры загружаются в потоке запроса — так же, как без параллельности
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("stats-views-", 1).factory()
+                : Thread.ofPlatform().name("stats-views-", 1).daemon().factory();
+        this.viewsExecutor = new ThreadPoolExecutor(viewsAsyncThreads, viewsAsyncThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threads, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.viewsExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        viewsExecutor.shutdownNow();
+    }
+
+    // хит только ставится в очередь, отправкой занимается StatsHitBuffer
     public void hit(HttpServletRequest request) {
         try {
             EndpointHitDto hit = EndpointHitDto.builder()
@@ -37,29 +81,115 @@ public class StatsFacade {
                     .timestamp(LocalDateTime.now().format(FORMATTER))
                     .build();
 
-            statsClient.saveHit(hit);
+            hitBuffer.enqueue(hit);
+            viewsCache.onHit(hit.getUri());
         } catch (Exception e) {
             log.warn("Stats hit failed: {}", e.getMessage());
         }
     }
 
     public Map<String, Long> getViews(List<String> uris) {
+        return withFallback(uris, () -> viewsCacheEnabled ? viewsCache.getAll(uris, this::loadViews) : loadViews(uris));
+    }
+
+    private Map<String, Long> withFallback(List<String> uris, Supplier<Map<String, Long>> loader) {
         if (uris == null || uris.isEmpty()) return Map.of();
 
         try {
-            ResponseEntity<Object> resp = statsClient.getStats(STATS_START, LocalDateTime.now(), uris, true);
-            Object body = resp.getBody();
-            if (body == null) return Map.of();
-
-            List<ViewStatsDto> list = objectMapper.convertValue(body, new TypeReference<>() {});
-            Map<String, Long> result = new HashMap<>();
-            for (ViewStatsDto vs : list) {
-                result.put(vs.getUri(), vs.getHits() == null ? 0L : vs.getHits());
-            }
-            return result;
+            return loader.get();
+        } catch (StatsCircuitBreaker.CallNotPermittedException e) {
+            log.debug("Stats getViews skipped: {}", e.getMessage());
         } catch (Exception e) {
             log.warn("Stats getViews failed: {}", e.getMessage());
-            return Map.of();
+        }
+        return fallbackViews(uris);
+    }
+
+    /**
+     * getViews в фоне: вызывающий поток тем временем читает базу или собирает DTO и ждёт просмотры
+     * только в конце. Не дольше views-async.deadline-ms — затем отдаются последние известные значения.
+     */
+    public CompletableFuture<Map<String, Long>> getViewsAsync(List<String> uris) {
+        return loadAsync(uris, () -> getViews(uris));
+    }
+
+    /**
+     * Просмотры сразу после хита этого же запроса (GET /events/{id}): перед чтением очередь хитов
+     * отправляется синхронно, а кэш просмотров пропускается — свой просмотр виден в ответе. Загруженное
+     * значение обновляет кэш для списков, которые хитов не ждут.
+     */
+    public CompletableFuture<Map<String, Long>> getViewsAfterHitAsync(List<String> uris) {
+        return loadAsync(uris, () -> {
+            hitBuffer.flushQueue();
+            return withFallback(uris, () -> viewsCacheEnabled ? viewsCache.reload(uris, this::loadViews) : loadViews(uris));
+        });
+    }
+
+    private CompletableFuture<Map<String, Long>> loadAsync(List<String> uris, Supplier<Map<String, Long>> loader) {
+        if (uris == null || uris.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+
+        return CompletableFuture.supplyAsync(loader, viewsExecutor)
+                .orTimeout(viewsDeadlineMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Stats getViews did not complete in {} ms", viewsDeadlineMs);
+                    return fallbackViews(uris);
+                });
+    }
+
+    /**
+     * Просмотры всех URI приложения в обход кэша.
+     *
+     * @throws IllegalStateException если сервис статистики ответил ошибкой
+     */
+    public Map<String, Long> getAllViews() {
+        return fetchViews(null);
+    }
+
+    /**
+     * Просмотры за всё время по заданным URI в обход кэша.
+     *
+     * @throws IllegalStateException если сервис статистики ответил ошибкой
+     */
+    public Map<String, Long> getAllViews(List<String> uris) {
+        if (uris.isEmpty()) return Map.of();
+
+        return fetchViews(uris);
+    }
+
+    /**
+     * URI, по которым были хиты с момента since. Неуникальный подсчёт за короткий интервал —
+     * сервису статистики не нужно считать уникальные IP по всей истории.
+     *
+     * @throws IllegalStateException если сервис статистики ответил ошибкой
+     */
+    public Set<String> getUrisHitSince(LocalDateTime since) {
+        try {
+            return statsClient.getViews(since, LocalDateTime.now(), null, false, false).keySet();
+        } catch (HttpStatusCodeException e) {
+            throw new IllegalStateException("stats-server responded " + e.getStatusCode());
+        }
+    }
+
+    // через автомат защиты: при медленном или недоступном сервисе запрос не ждёт дольше call-timeout
+    private Map<String, Long> loadViews(List<String> uris) {
+        // отправка очереди не входит ни в задержку чтения, ни в call-timeout: медленная запись
+        // не должна размыкать автомат для чтения просмотров
+        if (flushBeforeRead) {
+            hitBuffer.flushAsync();
+        }
+        return circuitBreaker.call(() -> fetchViews(uris));
+    }
+
+    // сервис статистики недоступен: отдаём последние известные просмотры
+    private Map<String, Long> fallbackViews(List<String> uris) {
+        return viewsCacheEnabled ? viewsCache.lastKnown(uris) : Map.of();
+    }
+
+    private Map<String, Long> fetchViews(List<String> uris) {
+        try {
+            return statsClient.getViews(STATS_START, LocalDateTime.now(), uris, true, approximateViews);
+        } catch (HttpStatusCodeException e) {
+            throw new IllegalStateException("stats-server responded " + e.getStatusCode());
         }
     }
 
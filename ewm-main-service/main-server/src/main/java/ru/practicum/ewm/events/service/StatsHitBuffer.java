@@ -0,0 +1,339 @@
+package ru.practicum.ewm.events.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Буфер хитов для сервиса статистики.
+ * Поток запроса только кладёт хит в ограниченную очередь, а фоновый поток
+ * периодически вычитывает её и отправляет хиты пачками через POST /hit/batch.
+ */
+@Slf4j
+@Component
+public class StatsHitBuffer {
+
+    public enum OverflowPolicy {
+        // вытеснить самый старый хит из очереди
+        DROP_OLDEST,
+        // подождать освобождения места не дольше block-timeout, затем отбросить хит
+        BLOCK,
+        // сбросить хит в файл на диске и дослать при следующем flush
+        SPILL
+    }
+
+    private final StatsClient statsClient;
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<EndpointHitDto> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long blockTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillFile;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock spillLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final Counter enqueued;
+    private final Counter flushed;
+    private final Counter dropped;
+    private final Counter spilled;
+    private final Counter failed;
+
+    private ScheduledExecutorService flusher;
+
+    public StatsHitBuffer(StatsClient statsClient,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${stats-server.hits.queue-capacity:10000}") int queueCapacity,
+                          @Value("${stats-server.hits.batch-size:500}") int batchSize,
+                          @Value("${stats-server.hits.flush-interval-ms:1000}") long flushIntervalMs,
+                          @Value("${stats-server.hits.block-timeout-ms:50}") long blockTimeoutMs,
+                          @Value("${stats-server.hits.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                          @Value("${stats-server.hits.spill-file:${java.io.tmpdir}/ewm-stats-hits.ndjson}") Path spillFile) {
+        if (queueCapacity < 1) throw new IllegalArgumentException("queue-capacity must be greater than zero");
+        if (batchSize < 1) throw new IllegalArgumentException("batch-size must be greater than zero");
+
+        this.statsClient = statsClient;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = spillFile;
+
+        this.enqueued = meterRegistry.counter("ewm.stats.hits.enqueued");
+        this.flushed = meterRegistry.counter("ewm.stats.hits.flushed");
+        this.dropped = meterRegistry.counter("ewm.stats.hits.dropped");
+        this.spilled = meterRegistry.counter("ewm.stats.hits.spilled");
+        this.failed = meterRegistry.counter("ewm.stats.hits.failed");
+        Gauge.builder("ewm.stats.hits.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-hit-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        // то, что успели накопить, отправляем перед остановкой
+        flushQuietly();
+    }
+
+    public void enqueue(EndpointHitDto hit) {
+        if (queue.offer(hit)) {
+            enqueued.increment();
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> {
+                while (!queue.offer(hit)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                enqueued.increment();
+            }
+            case BLOCK -> {
+                try {
+                    if (queue.offer(hit, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        enqueued.increment();
+                    } else {
+                        dropped.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+            }
+            case SPILL -> spill(List.of(hit));
+        }
+    }
+
+    /**
+     * Отправляет всё накопленное (очередь и файл переполнения) в сервис статистики.
+     * Одновременно работает только один flush: остальные вызовы ждут его завершения.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            drainQueue();
+            drainSpillFile();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Синхронно отправляет очередь без файла переполнения — перед чтением, которое должно увидеть свои хиты.
+     * Параллельные вызовы ждут текущую отправку и досылают только пришедшее после неё, поэтому под нагрузкой
+     * хиты многих запросов уходят одной пачкой.
+     */
+    public void flushQueue() {
+        flushLock.lock();
+        try {
+            drainQueue();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Запускает flush в фоновом потоке и сразу возвращается. Запросы, пришедшие до начала
+     * уже запрошенного flush, объединяются с ним.
+     */
+    public void flushAsync() {
+        if (flusher == null || !flushRequested.compareAndSet(false, true)) return;
+
+        try {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            flushRequested.set(false);
+        }
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    public long flushedCount() {
+        return (long) flushed.count();
+    }
+
+    public long droppedCount() {
+        return (long) dropped.count();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Stats hit flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void drainQueue() {
+        List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    private void send(List<EndpointHitDto> batch) {
+        try {
+            ResponseEntity<Object> resp = statsClient.saveHits(List.copyOf(batch));
+            if (!resp.getStatusCode().is2xxSuccessful()) {
+                log.warn("Stats hits rejected: status={}, size={}", resp.getStatusCode(), batch.size());
+                failed.increment(batch.size());
+                return;
+            }
+            flushed.increment(batch.size());
+        } catch (Exception e) {
+            log.warn("Stats hits send failed: {}", e.getMessage());
+            onSendFailure(batch);
+        }
+    }
+
+    // сервис статистики недоступен — пачку сохраняем (SPILL) или теряем
+    private void onSendFailure(List<EndpointHitDto> batch) {
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            spill(batch);
+        } else {
+            failed.increment(batch.size());
+        }
+    }
+
+    private void spill(List<EndpointHitDto> hits) {
+        spillLock.lock();
+        try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (EndpointHitDto hit : hits) {
+                writer.write(objectMapper.writeValueAsString(hit));
+                writer.newLine();
+            }
+            spilled.increment(hits.size());
+        } catch (IOException e) {
+            log.warn("Stats hit spill failed: {}", e.getMessage());
+            dropped.increment(hits.size());
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    private void drainSpillFile() {
+        if (overflowPolicy != OverflowPolicy.SPILL) return;
+
+        // забираем файл целиком, чтобы новые сбросы шли уже в свежий файл;
+        // недочитанный с прошлого раза файл досылаем первым — с места, где остановились
+        Path processing = spillFile.resolveSibling(spillFile.getFileName() + ".processing");
+        Path offset = spillFile.resolveSibling(spillFile.getFileName() + ".offset");
+        if (!Files.exists(processing)) {
+            spillLock.lock();
+            try {
+                if (!Files.exists(spillFile)) return;
+                Files.deleteIfExists(offset);
+                Files.move(spillFile, processing, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("Stats hit spill file is not readable: {}", e.getMessage());
+                return;
+            } finally {
+                spillLock.unlock();
+            }
+        }
+
+        // после каждой отправленной пачки запоминаем число обработанных строк: сбой чтения посреди файла
+        // не приводит к повторной отправке уже ушедших хитов
+        List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(processing, StandardCharsets.UTF_8)) {
+            long done = readOffset(offset);
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo <= done || line.isBlank()) continue;
+                try {
+                    batch.add(objectMapper.readValue(line, EndpointHitDto.class));
+                } catch (JsonProcessingException e) {
+                    reject(line);
+                }
+                if (batch.size() == batchSize) {
+                    send(batch);
+                    batch.clear();
+                    Files.writeString(offset, Long.toString(lineNo));
+                }
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+            Files.deleteIfExists(processing);
+            Files.deleteIfExists(offset);
+        } catch (IOException e) {
+            log.warn("Stats hit spill file replay failed: {}", e.getMessage());
+        }
+    }
+
+    private static long readOffset(Path offset) throws IOException {
+        if (!Files.exists(offset)) return 0;
+
+        String value = Files.readString(offset).trim();
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    // нечитаемая строка откладывается в отдельный файл и больше не мешает досылке остальных
+    private void reject(String line) {
+        failed.increment();
+        Path rejected = spillFile.resolveSibling(spillFile.getFileName() + ".rejected");
+        try {
+            Files.writeString(rejected, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Stats hit spill line rejected and lost: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ru.practicum.ewm.events.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Локальный кэш просмотров по URI.
+ * Свежие значения (моложе ttl) отдаются без обращения к сервису статистики; устаревшие, но моложе
+ * ttl + stale-while-revalidate, отдаются сразу и обновляются в фоне. Все промахи одного вызова
+ * загружаются одним запросом. Чтение одного события после его хита идёт мимо кэша ({@link #reload}),
+ * поэтому задержка ttl касается только списков.
+ */
+@Slf4j
+@Component
+public class ViewsCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Entry> entries;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter refreshes;
+    private final Counter refreshFailures;
+
+    @Autowired
+    public ViewsCache(MeterRegistry meterRegistry,
+                      @Value("${stats-server.views-cache.max-size:10000}") int maxSize,
+                      @Value("${stats-server.views-cache.ttl-ms:5000}") long ttlMs,
+                      @Value("${stats-server.views-cache.stale-while-revalidate-ms:60000}") long staleMs) {
+        this(meterRegistry, maxSize, ttlMs, staleMs, System::nanoTime);
+    }
+
+    ViewsCache(MeterRegistry meterRegistry, int maxSize, long ttlMs, long staleMs, LongSupplier nanoClock) {
+        if (maxSize < 1) throw new IllegalArgumentException("views-cache.max-size must be greater than zero");
+
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleMs);
+        this.nanoClock = nanoClock;
+
+        // LRU: при переполнении вытесняется URI, который дольше всех не запрашивали
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ViewsCache.this.maxSize;
+            }
+        };
+
+        this.refresher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "views-cache-refresher");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.hits = meterRegistry.counter("ewm.stats.views.cache", "result", "hit");
+        this.misses = meterRegistry.counter("ewm.stats.views.cache", "result", "miss");
+        this.staleHits = meterRegistry.counter("ewm.stats.views.cache", "result", "stale");
+        this.refreshes = meterRegistry.counter("ewm.stats.views.cache.refresh", "result", "success");
+        this.refreshFailures = meterRegistry.counter("ewm.stats.views.cache.refresh", "result", "failure");
+        Gauge.builder("ewm.stats.views.cache.size", this, ViewsCache::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Возвращает просмотры по всем uris; для URI без просмотров — 0.
+     *
+     * @param loader загрузка просмотров из сервиса статистики; исключение загрузки промахов пробрасывается
+     */
+    public Map<String, Long> getAll(Collection<String> uris, Function<List<String>, Map<String, Long>> loader) {
+        long now = nanoClock.getAsLong();
+        Map<String, Long> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+
+        synchronized (entries) {
+            for (String uri : new LinkedHashSet<>(uris)) {
+                Entry e = entries.get(uri);
+                long age = e == null ? Long.MAX_VALUE : now - e.loadedAt();
+                if (age < ttlNanos) {
+                    hits.increment();
+                    result.put(uri, e.views());
+                } else if (age < ttlNanos + staleNanos) {
+                    staleHits.increment();
+                    result.put(uri, e.views());
+                    stale.add(uri);
+                } else {
+                    misses.increment();
+                    missing.add(uri);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            result.putAll(load(missing, loader));
+        }
+        if (!stale.isEmpty()) {
+            refreshAsync(stale, loader);
+        }
+        return result;
+    }
+
+    /**
+     * Загружает просмотры в обход кэша и обновляет его — для чтения, которое должно видеть только что
+     * отправленные хиты.
+     *
+     * @param loader загрузка просмотров из сервиса статистики; исключение загрузки пробрасывается
+     */
+    public Map<String, Long> reload(Collection<String> uris, Function<List<String>, Map<String, Long>> loader) {
+        return load(List.copyOf(new LinkedHashSet<>(uris)), loader);
+    }
+
+    /**
+     * Хит по URI: нулевое значение сбрасывается, чтобы первый просмотр был виден сразу,
+     * ненулевые обновятся по ttl.
+     */
+    public void onHit(String uri) {
+        synchronized (entries) {
+            Entry e = entries.get(uri);
+            if (e != null && e.views() == 0) {
+                entries.remove(uri);
+            }
+        }
+    }
+
+    /**
+     * Последние загруженные значения независимо от их возраста — запасной ответ, пока сервис статистики
+     * недоступен. URI, которых нет в кэше, в результат не попадают.
+     */
+    public Map<String, Long> lastKnown(Collection<String> uris) {
+        Map<String, Long> result = new HashMap<>();
+        synchronized (entries) {
+            for (String uri : uris) {
+                Entry e = entries.get(uri);
+                if (e != null) {
+                    result.put(uri, e.views());
+                }
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Map<String, Long> load(List<String> uris, Function<List<String>, Map<String, Long>> loader) {
+        Map<String, Long> loaded = loader.apply(uris);
+        long now = nanoClock.getAsLong();
+
+        Map<String, Long> result = new HashMap<>();
+        synchronized (entries) {
+            for (String uri : uris) {
+                long views = loaded.getOrDefault(uri, 0L);
+                entries.put(uri, new Entry(views, now));
+                result.put(uri, views);
+            }
+        }
+        return result;
+    }
+
+    // одна фоновая загрузка на URI: повторные запросы устаревшего значения не множат вызовы
+    private void refreshAsync(List<String> uris, Function<List<String>, Map<String, Long>> loader) {
+        List<String> claimed = uris.stream()
+                .filter(refreshing::add)
+                .toList();
+        if (claimed.isEmpty()) return;
+
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(claimed, loader);
+                    refreshes.increment();
+                } catch (Exception e) {
+                    refreshFailures.increment();
+                    log.warn("Views cache refresh failed: {}", e.getMessage());
+                } finally {
+                    claimed.forEach(refreshing::remove);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            claimed.forEach(refreshing::remove);
+        }
+    }
+
+    private record Entry(long views, long loadedAt) {
+    }
+}
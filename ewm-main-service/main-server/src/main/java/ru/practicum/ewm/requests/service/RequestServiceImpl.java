@@ -1,6 +1,7 @@
 package ru.practicum.ewm.requests.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.events.mapper.RequestMapper;
@@ -10,6 +11,7 @@ import ru.practicum.ewm.events.model.ParticipationRequest;
 import ru.practicum.ewm.events.model.RequestStatus;
 import ru.practicum.ewm.events.repository.EventRepository;
 import ru.practicum.ewm.events.repository.ParticipationRequestRepository;
+import ru.practicum.ewm.events.service.EventsUpdated;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.users.model.User;
@@ -27,6 +29,7 @@ public class RequestServiceImpl implements RequestService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final ParticipationRequestRepository requestRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -50,7 +53,7 @@ public class RequestServiceImpl implements RequestService {
         }
 
         if (event.getParticipantLimit() > 0) {
-            long confirmed = requestRepository.countByEvent_IdAndStatus(eventId, RequestStatus.CONFIRMED);
+            long confirmed = event.getConfirmedRequests() == null ? 0L : event.getConfirmedRequests();
             if (confirmed >= event.getParticipantLimit()) {
                 throw new ConflictException("Превышен лимит по числу участников!");
             }
@@ -68,6 +71,14 @@ public class RequestServiceImpl implements RequestService {
             pr.setStatus(RequestStatus.PENDING);
         }
 
+        // место занимаем атомарно до вставки заявки: проверка выше лишь отсекает заведомо полные события
+        if (pr.getStatus() == RequestStatus.CONFIRMED) {
+            if (eventRepository.tryAddConfirmedRequests(eventId, 1) == 0) {
+                throw new ConflictException("Превышен лимит по числу участников!");
+            }
+            eventPublisher.publishEvent(EventsUpdated.of(eventId));
+        }
+
         ParticipationRequest saved = requestRepository.save(pr);
         return RequestMapper.toDto(saved);
     }
@@ -95,9 +106,19 @@ public class RequestServiceImpl implements RequestService {
         ParticipationRequest pr = requestRepository.findByIdAndRequester_Id(requestId, userId)
                 .orElseThrow(() -> new NotFoundException("Запрос с id=" + requestId + " не найден!"));
 
-        pr.setStatus(RequestStatus.CANCELED);
-        ParticipationRequest saved = requestRepository.save(pr);
+        long eventId = pr.getEvent().getId();
+        RequestStatus previous = pr.getStatus();
 
-        return RequestMapper.toDto(saved);
+        // строку события блокируем раньше заявки — в том же порядке, что и при подтверждении
+        if (previous == RequestStatus.CONFIRMED) {
+            eventRepository.addConfirmedRequests(eventId, -1);
+            eventPublisher.publishEvent(EventsUpdated.of(eventId));
+        }
+        if (requestRepository.updateStatus(eventId, List.of(requestId), previous, RequestStatus.CANCELED) == 0) {
+            throw new ConflictException("Статус запроса изменился, повторите отмену.");
+        }
+
+        pr.setStatus(RequestStatus.CANCELED);
+        return RequestMapper.toDto(pr);
     }
 }
@@ -13,7 +13,6 @@ import ru.practicum.ewm.users.dto.NewUserDto;
 import ru.practicum.ewm.users.dto.UserDto;
 import ru.practicum.ewm.users.model.service.UserService;
 
-import java.util.Collection;
 import java.util.List;
 
 @RestController
@@ -26,14 +25,14 @@ public class UserAdminController {
     private final UserService userService;
 
     @GetMapping
-    public ResponseEntity<Collection<UserDto>> getUsers(
+    public ResponseEntity<List<UserDto>> getUsers(
             @RequestParam(required = false) List<Long> ids,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(defaultValue = "10") @Positive int size) {
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) String after) {
 
-        log.info("GET /admin/users: ids={}, from={}, size={}", ids, from, size);
-        Collection<UserDto> users = userService.getUsers(ids, from, size);
-        return ResponseEntity.ok(users);
+        log.info("GET /admin/users: ids={}, from={}, size={}, after={}", ids, from, size, after);
+        return userService.getUsers(ids, from, size, after).toResponse();
     }
 
     @PostMapping
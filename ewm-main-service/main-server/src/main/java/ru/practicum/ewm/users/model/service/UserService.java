@@ -1,14 +1,14 @@
 package ru.practicum.ewm.users.model.service;
 
+import ru.practicum.ewm.common.pagination.CursorPage;
 import ru.practicum.ewm.users.dto.NewUserDto;
 import ru.practicum.ewm.users.dto.UserDto;
 
-import java.util.Collection;
 import java.util.List;
 
 public interface UserService {
 
-    Collection<UserDto> getUsers(List<Long> ids, int from, int size);
+    CursorPage<UserDto> getUsers(List<Long> ids, int from, int size, String after);
 
     UserDto createUser(NewUserDto newUserDto);
 
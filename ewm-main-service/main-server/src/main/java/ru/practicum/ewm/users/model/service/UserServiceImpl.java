@@ -3,10 +3,12 @@ package ru.practicum.ewm.users.model.service;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import ru.practicum.ewm.common.pagination.CursorPage;
+import ru.practicum.ewm.common.pagination.PageCursor;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.users.dto.NewUserDto;
@@ -16,7 +18,6 @@ import ru.practicum.ewm.users.model.User;
 import ru.practicum.ewm.users.repository.UserRepository;
 
 
-import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,21 +30,21 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
 
     @Override
-    public Collection<UserDto> getUsers(List<Long> ids, int from, int size) {
-        int pageNumber = from / size;
-        Pageable pageable = PageRequest.of(pageNumber, size);
+    public CursorPage<UserDto> getUsers(List<Long> ids, int from, int size, String after) {
+        ScrollPosition position = after == null ? PageCursor.offset(from) : PageCursor.decodeId(after);
 
-        List<User> users;
+        Window<User> users;
         if (ids != null && !ids.isEmpty()) {
-            users = userRepository.findAllByIdIn(ids, pageable);
+            users = userRepository.findAllByIdInOrderByIdAsc(ids, position, Limit.of(size));
         } else {
-            Page<User> page = userRepository.findAll(pageable);
-            users = page.getContent();
+            users = userRepository.findAllByOrderByIdAsc(position, Limit.of(size));
         }
 
-        return users.stream()
-                .map(userMapper::toUserDto)
-                .collect(Collectors.toList());
+        return CursorPage.of(users,
+                content -> content.stream()
+                        .map(userMapper::toUserDto)
+                        .collect(Collectors.toList()),
+                u -> PageCursor.encodeId(u.getId()));
     }
 
     @Override
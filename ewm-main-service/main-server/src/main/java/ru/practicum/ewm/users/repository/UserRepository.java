@@ -1,13 +1,14 @@
 package ru.practicum.ewm.users.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewm.users.model.User;
 
 
 import java.util.Collection;
-import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -16,8 +17,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     User getUserEntityById(Long id);
 
-    List<User> findAllByIdIn(Collection<Long> ids, Pageable pageable);
+    Window<User> findAllByIdInOrderByIdAsc(Collection<Long> ids, ScrollPosition position, Limit limit);
 
-    List<User> findAllBy(Pageable pageable);
+    Window<User> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
 
 }
@@ -33,11 +33,50 @@ CREATE TABLE IF NOT EXISTS events
     published_on       TIMESTAMP WITHOUT TIME ZONE,
     lat                DOUBLE PRECISION NOT NULL,
     lon                DOUBLE PRECISION NOT NULL,
+    views              BIGINT  NOT NULL DEFAULT 0,
+    confirmed_requests BIGINT  NOT NULL DEFAULT 0,
 
     CONSTRAINT chk_participant_limit_non_negative CHECK (participant_limit >= 0),
     CONSTRAINT chk_event_state CHECK (state IN ('PENDING', 'PUBLISHED', 'CANCELED'))
 );
 
+-- просмотры из сервиса статистики (EventViewsSync) для сортировки VIEWS
+ALTER TABLE events ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_events_state_views
+    ON events (state, views DESC, id);
+
+-- Публичный поиск: state = 'PUBLISHED' и event_date >= now, сортировка (event_date, id) — в том же порядке,
+-- что и индекс, поэтому страница (и keyset-курсор) читается без сортировки.
+-- paid отдельно не индексируется: у булевой колонки нет селективности.
+CREATE INDEX IF NOT EXISTS idx_events_state_date
+    ON events (state, event_date, id);
+
+-- фильтр по категориям; заодно индекс внешнего ключа для проверки при удалении категории
+CREATE INDEX IF NOT EXISTS idx_events_category_state_date
+    ON events (category_id, state, event_date);
+
+-- события пользователя и поиск администратора по users, сортировка по id
+CREATE INDEX IF NOT EXISTS idx_events_initiator
+    ON events (initiator_id, id);
+
+-- Поиск по тексту (параметр text публичного поиска).
+-- Триграммы ускоряют режим SUBSTRING (lower(...) LIKE '%x%'),
+-- выражение полнотекстового индекса совпадает с EventSearchFunctions (режим FULL_TEXT).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_events_annotation_trgm
+    ON events USING GIN (lower(annotation) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_events_description_trgm
+    ON events USING GIN (lower(description) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_events_fts
+    ON events USING GIN (to_tsvector('russian', annotation || ' ' || description));
+
+-- число подтверждённых заявок; для существующих событий заполняется ConfirmedRequestsReconciler
+ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_requests BIGINT NOT NULL DEFAULT 0;
+
 -- COMPILATIONS
 CREATE TABLE IF NOT EXISTS compilations
 (
@@ -55,6 +94,10 @@ CREATE TABLE IF NOT EXISTS compilation_events
     PRIMARY KEY (compilation_id, event_id)
 );
 
+-- обратный поиск подборок по событию (каскадное удаление события)
+CREATE INDEX IF NOT EXISTS idx_compilation_events_event
+    ON compilation_events (event_id);
+
 
 -- PARTICIPATION REQUESTS
 CREATE TABLE IF NOT EXISTS participation_requests
@@ -69,3 +112,10 @@ CREATE TABLE IF NOT EXISTS participation_requests
     CONSTRAINT chk_request_status CHECK (status IN ('PENDING', 'CONFIRMED', 'REJECTED', 'CANCELED'))
 );
 
+-- подсчёт и смена статуса заявок события (confirm/reject, сверка confirmed_requests)
+CREATE INDEX IF NOT EXISTS idx_requests_event_status
+    ON participation_requests (event_id, status);
+
+-- заявки пользователя
+CREATE INDEX IF NOT EXISTS idx_requests_requester
+    ON participation_requests (requester_id, id);
@@ -8,6 +8,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.service.CategoryService;
+import ru.practicum.ewm.common.pagination.CursorPage;
 
 import java.util.List;
 
@@ -27,8 +28,8 @@ class PublicCategoryControllerTest {
 
     @Test
     void getAllCategories_ok() throws Exception {
-        when(categoryService.getAll(0, 10))
-                .thenReturn(List.of(new CategoryDto(1L, "Music")));
+        when(categoryService.getAll(0, 10, null))
+                .thenReturn(new CursorPage<>(List.of(new CategoryDto(1L, "Music")), null));
 
         mockMvc.perform(get("/categories"))
                 .andExpect(status().isOk())
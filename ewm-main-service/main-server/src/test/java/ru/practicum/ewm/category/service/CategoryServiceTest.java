@@ -6,8 +6,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.dto.NewCategoryDto;
+import ru.practicum.ewm.common.pagination.CursorPage;
+import ru.practicum.ewm.common.pagination.PageCursor;
 import ru.practicum.ewm.exception.NotFoundException;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -46,4 +50,17 @@ class CategoryServiceTest {
         assertThrows(NotFoundException.class,
                 () -> categoryService.getById(created.getId()));
     }
+
+    @Test
+    void getAll_afterCursor_shouldContinueById() {
+        CategoryDto first = categoryService.create(new NewCategoryDto("Theatre"));
+        CategoryDto second = categoryService.create(new NewCategoryDto("Dance"));
+        CategoryDto third = categoryService.create(new NewCategoryDto("Opera"));
+
+        CursorPage<CategoryDto> page = categoryService.getAll(0, 1, PageCursor.encodeId(first.getId()));
+        assertEquals(List.of(second), page.items());
+
+        page = categoryService.getAll(0, 1, page.nextCursor());
+        assertEquals(List.of(third), page.items());
+    }
 }
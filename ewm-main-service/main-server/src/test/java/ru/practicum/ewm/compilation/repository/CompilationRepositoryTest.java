@@ -0,0 +1,117 @@
+package ru.practicum.ewm.compilation.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.compilation.model.Compilation;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.events.util.OffsetBasedPageRequest;
+import ru.practicum.ewm.users.model.User;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class CompilationRepositoryTest {
+
+    private static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "id");
+
+    @Autowired
+    private CompilationRepository compilationRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long suffix = System.nanoTime();
+        User user = em.persist(User.builder().name("Pager").email("pager-" + suffix + "@mail.ru").build());
+        Category category = new Category();
+        category.setName("Pagination " + suffix);
+        em.persist(category);
+
+        for (int i = 0; i < 5; i++) {
+            Compilation c = new Compilation();
+            c.setTitle("Подборка " + i);
+            c.setPinned(i % 2 == 0);
+            c.setEvents(new LinkedHashSet<>(List.of(event(user, category), event(user, category))));
+            em.persist(c);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void pageOfIds_shouldBeCutInSqlAndLoadedWithEventsInOneStatement() {
+        List<Long> all = compilationRepository.findPageIds(new OffsetBasedPageRequest(0, 1000, BY_ID));
+
+        statistics.clear();
+        List<Long> page = compilationRepository.findPageIds(new OffsetBasedPageRequest(1, 2, BY_ID));
+        List<Compilation> loaded = compilationRepository.findAllByIdIn(page, BY_ID);
+        loaded.forEach(c -> c.getEvents().forEach(e -> e.getCategory().getName()));
+
+        assertThat(page).isEqualTo(all.subList(1, 3));
+        assertThat(loaded).extracting(Compilation::getId).isEqualTo(page);
+        assertThat(loaded).allSatisfy(c -> assertThat(c.getEvents()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void pageOfPinnedIds_shouldContainOnlyPinned() {
+        List<Long> pinned = compilationRepository.findPageIdsByPinned(true, new OffsetBasedPageRequest(0, 1000, BY_ID));
+
+        assertThat(compilationRepository.findAllByIdIn(pinned, BY_ID))
+                .isNotEmpty()
+                .allSatisfy(c -> assertThat(c.getPinned()).isTrue());
+    }
+
+    // пагинация запроса с fetch коллекции не должна молча уходить в память
+    @Test
+    void paginationOverCollectionFetch_shouldFail() {
+        assertThatThrownBy(() -> em.getEntityManager()
+                .createQuery("select c from Compilation c join fetch c.events", Compilation.class)
+                .setMaxResults(2)
+                .getResultList())
+                .hasMessageContaining("fail_on_pagination_over_collection_fetch");
+    }
+
+    private Event event(User user, Category category) {
+        GeoLocation location = new GeoLocation();
+        location.setLat(55.75f);
+        location.setLon(37.61f);
+
+        Event e = new Event();
+        e.setTitle("Event for pagination");
+        e.setAnnotation("Annotation of the event for pagination");
+        e.setDescription("Description of the event for pagination");
+        e.setCategory(category);
+        e.setInitiator(user);
+        e.setLocation(location);
+        e.setEventDate(LocalDateTime.now().plusDays(10));
+        e.setState(EventState.PUBLISHED);
+        e.setCreatedOn(LocalDateTime.now());
+        return em.persist(e);
+    }
+}
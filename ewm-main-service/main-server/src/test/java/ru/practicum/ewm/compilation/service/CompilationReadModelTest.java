@@ -0,0 +1,217 @@
+package ru.practicum.ewm.compilation.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.ewm.category.dto.CategoryDto;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.category.service.CategoryService;
+import ru.practicum.ewm.compilation.dto.CompilationDto;
+import ru.practicum.ewm.compilation.dto.NewCompilationDto;
+import ru.practicum.ewm.compilation.repository.CompilationRepository;
+import ru.practicum.ewm.events.dto.EventShortDto;
+import ru.practicum.ewm.events.dto.UpdateEventAdminRequest;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.events.service.EventEnricher;
+import ru.practicum.ewm.events.service.EventService;
+import ru.practicum.ewm.events.service.StatsFacade;
+import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.users.model.User;
+import ru.practicum.ewm.users.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "ewm.compilations.read-model.enabled=true")
+@ActiveProfiles("test")
+class CompilationReadModelTest {
+
+    @MockBean
+    private StatsFacade statsFacade;
+
+    @Autowired
+    private CompilationService compilationService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CompilationRepository compilationRepository;
+
+    @Autowired
+    private EventEnricher eventEnricher;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(statsFacade.getViews(any())).thenReturn(Map.of());
+        when(statsFacade.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        long suffix = System.nanoTime();
+        User user = userRepository.save(User.builder()
+                .name("Compiler")
+                .email("compiler-" + suffix + "@mail.ru")
+                .build());
+        Category category = new Category();
+        category.setName("Read model " + suffix);
+        event = saveEvent(user, categoryRepository.save(category));
+    }
+
+    @Test
+    void publicReads_shouldBeServedFromMemoryUntilCompilationsChange() {
+        CompilationDto created = compilationService.create(compilation("Главная", event.getId()));
+
+        assertEquals(created.getId(), compilationService.getPublicCompilation(created.getId()).getId());
+
+        statistics.clear();
+        List<CompilationDto> page = compilationService.getPublicCompilations(true, 0, 1000);
+        compilationService.getPublicCompilation(created.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(page.stream().anyMatch(c -> c.getId().equals(created.getId())));
+
+        compilationService.delete(created.getId());
+        assertThrows(NotFoundException.class, () -> compilationService.getPublicCompilation(created.getId()));
+    }
+
+    @Test
+    void eventUpdate_shouldBeVisibleInCompilation() {
+        CompilationDto created = compilationService.create(compilation("Подборка", event.getId()));
+        compilationService.getPublicCompilation(created.getId());
+
+        UpdateEventAdminRequest update = new UpdateEventAdminRequest();
+        update.setTitle("Новое название события");
+        eventService.updateAdmin(event.getId(), update);
+
+        List<String> titles = compilationService.getPublicCompilation(created.getId()).getEvents().stream()
+                .map(EventShortDto::getTitle)
+                .toList();
+        assertEquals(List.of("Новое название события"), titles);
+    }
+
+    @Test
+    void views_shouldBeTakenAtReadTimeWithoutRebuild() {
+        String uri = "/events/" + event.getId();
+        when(statsFacade.getViews(List.of(uri))).thenReturn(Map.of(uri, 3L));
+        CompilationDto created = compilationService.create(compilation("Просмотры", event.getId()));
+        assertEquals(3L, compilationService.getPublicCompilation(created.getId()).getEvents().get(0).getViews());
+
+        when(statsFacade.getViews(List.of(uri))).thenReturn(Map.of(uri, 5L));
+        statistics.clear();
+        assertEquals(5L, compilationService.getPublicCompilation(created.getId()).getEvents().get(0).getViews());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void categoryRename_shouldBeVisibleInCompilation() {
+        CompilationDto created = compilationService.create(compilation("Категории", event.getId()));
+        compilationService.getPublicCompilation(created.getId());
+
+        CategoryDto rename = new CategoryDto();
+        rename.setName("Переименованная " + System.nanoTime());
+        categoryService.update(event.getCategory().getId(), rename);
+
+        assertEquals(rename.getName(),
+                compilationService.getPublicCompilation(created.getId()).getEvents().get(0).getCategory().getName());
+    }
+
+    @Test
+    void publicPages_shouldMatchSqlPagination() {
+        when(statsFacade.getViews(any())).thenAnswer(inv -> sevenViewsEach(inv.getArgument(0)));
+        when(statsFacade.getViewsAsync(any())).thenAnswer(inv ->
+                CompletableFuture.completedFuture(sevenViewsEach(inv.getArgument(0))));
+        compilationService.create(compilation("Первая", event.getId()));
+        compilationService.create(NewCompilationDto.builder().title("Вторая").pinned(false).build());
+        compilationService.create(compilation("Третья", event.getId()));
+
+        CompilationService sqlOnly = new CompilationServiceImpl(compilationRepository, eventRepository, eventEnricher,
+                new CompilationReadModel(compilationRepository, eventEnricher, new SimpleMeterRegistry(), false, 1000));
+
+        for (Boolean pinned : Arrays.asList(null, true, false)) {
+            for (int from : List.of(0, 1, 2)) {
+                assertEquals(sqlOnly.getPublicCompilations(pinned, from, 2),
+                        compilationService.getPublicCompilations(pinned, from, 2),
+                        "pinned=" + pinned + ", from=" + from);
+            }
+        }
+    }
+
+    @Test
+    void readModel_overMaxSize_shouldLeavePagesToSql() {
+        compilationService.create(compilation("Лишняя", event.getId()));
+        CompilationReadModel capped = new CompilationReadModel(compilationRepository, eventEnricher,
+                new SimpleMeterRegistry(), true, 0);
+
+        assertTrue(capped.getPage(null, 0, 10).isEmpty());
+        assertTrue(capped.get(event.getId()).isEmpty());
+    }
+
+    private static Map<String, Long> sevenViewsEach(List<String> uris) {
+        Map<String, Long> views = new HashMap<>();
+        uris.forEach(uri -> views.put(uri, 7L));
+        return views;
+    }
+
+    private static NewCompilationDto compilation(String title, long eventId) {
+        return NewCompilationDto.builder()
+                .title(title)
+                .pinned(true)
+                .events(List.of(eventId))
+                .build();
+    }
+
+    private Event saveEvent(User user, Category category) {
+        GeoLocation location = new GeoLocation();
+        location.setLat(55.75f);
+        location.setLon(37.61f);
+
+        Event e = new Event();
+        e.setTitle("Event for read model");
+        e.setAnnotation("Annotation of the event for read model");
+        e.setDescription("Description of the event for read model");
+        e.setCategory(category);
+        e.setInitiator(user);
+        e.setLocation(location);
+        e.setEventDate(LocalDateTime.now().plusDays(10));
+        e.setState(EventState.PUBLISHED);
+        e.setCreatedOn(LocalDateTime.now());
+        e.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(e);
+    }
+}
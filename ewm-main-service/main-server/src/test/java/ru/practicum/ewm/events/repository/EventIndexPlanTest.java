@@ -0,0 +1,147 @@
+package ru.practicum.ewm.events.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Горячие запросы поиска событий и заявок не должны скатываться в полный просмотр таблицы.
+ * План строит H2 по индексам из @Table, которые совпадают с индексами schema.sql.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class EventIndexPlanTest {
+
+    private static final int USERS = 50;
+    private static final int CATEGORIES = 20;
+    private static final int EVENTS = 2000;
+
+    // H2, в отличие от PostgreSQL, сам индексирует внешние ключи и для равенства по ним
+    // может выбрать свой индекс (FK..._INDEX_..) вместо составного
+    private static final String FK_INDEX = "_INDEX_";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long userId;
+    private long categoryId;
+    private long eventId;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        for (int i = 0; i < USERS; i++) {
+            jdbc.update("INSERT INTO users (name, email) VALUES (?, ?)", "Plan " + i, "plan-" + suffix + "-" + i + "@mail.ru");
+        }
+        for (int i = 0; i < CATEGORIES; i++) {
+            jdbc.update("INSERT INTO categories (name) VALUES (?)", "Plan " + suffix % 100000 + " " + i);
+        }
+        List<Long> users = jdbc.queryForList("SELECT id FROM users ORDER BY id DESC LIMIT " + USERS, Long.class);
+        List<Long> categories = jdbc.queryForList("SELECT id FROM categories ORDER BY id DESC LIMIT " + CATEGORIES, Long.class);
+        userId = users.getFirst();
+        categoryId = categories.getFirst();
+
+        String[] states = {"PUBLISHED", "PENDING", "CANCELED"};
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(new Object[]{"Plan event " + i, "Annotation of plan event " + i, "Description of plan event " + i,
+                    Timestamp.valueOf(now.plusHours(i - EVENTS / 2)), categories.get(i % CATEGORIES),
+                    users.get(i % USERS), i % 2 == 0, 10, true, states[i % states.length],
+                    Timestamp.valueOf(now), 55.75f, 37.61f, (long) i % 97, 0L});
+        }
+        jdbc.batchUpdate("""
+                INSERT INTO events (title, annotation, description, event_date, category_id, initiator_id, paid,
+                                    participant_limit, request_moderation, state, created_on, lat, lon, views,
+                                    confirmed_requests)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, events);
+        eventId = jdbc.queryForObject("SELECT max(id) FROM events", Long.class);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            requests.add(new Object[]{Timestamp.valueOf(now), eventId - i % 10, users.get(i), i % 2 == 0 ? "CONFIRMED" : "PENDING"});
+        }
+        jdbc.batchUpdate("INSERT INTO participation_requests (created, event_id, requester_id, status) VALUES (?, ?, ?, ?)",
+                requests);
+    }
+
+    @Test
+    void publicSearchByDate_shouldUseStateDateIndex() {
+        assertIndexScan("""
+                SELECT e.id FROM events e
+                WHERE e.state = 'PUBLISHED' AND e.event_date >= CURRENT_TIMESTAMP
+                ORDER BY e.event_date, e.id
+                LIMIT 11
+                """, "IDX_EVENTS_STATE_DATE");
+    }
+
+    // планировщик выбирает между фильтром по дате и чтением в порядке views — годится любой из индексов по state
+    @Test
+    void publicSearchByViews_shouldUseStateIndex() {
+        assertIndexScan("""
+                SELECT e.id FROM events e
+                WHERE e.state = 'PUBLISHED' AND e.event_date >= CURRENT_TIMESTAMP
+                ORDER BY e.views DESC, e.id
+                LIMIT 11
+                """, "IDX_EVENTS_STATE");
+    }
+
+    @Test
+    void publicSearchByCategory_shouldUseCategoryIndex() {
+        assertIndexScan("""
+                SELECT e.id FROM events e
+                WHERE e.category_id IN (%d) AND e.state = 'PUBLISHED' AND e.event_date >= CURRENT_TIMESTAMP
+                ORDER BY e.event_date, e.id
+                LIMIT 11
+                """.formatted(categoryId), "IDX_EVENTS_CATEGORY_STATE_DATE");
+    }
+
+    @Test
+    void userEvents_shouldUseInitiatorIndex() {
+        assertIndexScan("""
+                SELECT e.id FROM events e
+                WHERE e.initiator_id = %d
+                ORDER BY e.id
+                LIMIT 11
+                """.formatted(userId), "IDX_EVENTS_INITIATOR", FK_INDEX);
+    }
+
+    @Test
+    void requestCountByStatus_shouldUseEventStatusIndex() {
+        assertIndexScan("""
+                SELECT count(r.id) FROM participation_requests r
+                WHERE r.event_id = %d AND r.status = 'CONFIRMED'
+                """.formatted(eventId), "IDX_REQUESTS_EVENT_STATUS");
+    }
+
+    @Test
+    void userRequests_shouldUseRequesterIndex() {
+        assertIndexScan("""
+                SELECT r.id FROM participation_requests r
+                WHERE r.requester_id = %d
+                ORDER BY r.id
+                """.formatted(userId), "IDX_REQUESTS_REQUESTER", FK_INDEX);
+    }
+
+    private void assertIndexScan(String sql, String... indexes) {
+        String plan = String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+        assertFalse(plan.contains("tableScan"), () -> "Sequential scan in plan:\n" + plan);
+        assertTrue(Arrays.stream(indexes).anyMatch(plan::contains),
+                () -> "Expected one of " + Arrays.toString(indexes) + " in plan:\n" + plan);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.ewm.events.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.events.dto.ParticipationRequestDto;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.requests.service.RequestService;
+import ru.practicum.ewm.users.model.User;
+import ru.practicum.ewm.users.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ConfirmedRequestsReconcilerTest {
+
+    @Autowired
+    private ConfirmedRequestsReconciler reconciler;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Test
+    void confirmedRequests_shouldFollowRequestStatus_andDriftShouldBeFixed() {
+        User initiator = userRepository.save(User.builder().name("Initiator").email("reconcile-owner@mail.ru").build());
+        User first = userRepository.save(User.builder().name("First").email("reconcile-first@mail.ru").build());
+        User second = userRepository.save(User.builder().name("Second").email("reconcile-second@mail.ru").build());
+        Event event = saveEvent(initiator);
+
+        // без модерации заявки подтверждаются сразу
+        ParticipationRequestDto request = requestService.addParticipationRequest(first.getId(), event.getId());
+        requestService.addParticipationRequest(second.getId(), event.getId());
+        assertEquals(2L, confirmed(event));
+
+        requestService.cancelRequest(first.getId(), request.getId());
+        assertEquals(1L, confirmed(event));
+
+        tx.executeWithoutResult(status -> eventRepository.setConfirmedRequests(event.getId(), 7));
+        assertEquals(7L, confirmed(event));
+
+        assertEquals(1, reconciler.reconcile());
+        assertEquals(1L, confirmed(event));
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    private long confirmed(Event event) {
+        return eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests();
+    }
+
+    private Event saveEvent(User initiator) {
+        Category category = new Category();
+        category.setName("Reconcile");
+        category = categoryRepository.save(category);
+
+        GeoLocation location = new GeoLocation();
+        location.setLat(55.75f);
+        location.setLon(37.61f);
+
+        Event event = new Event();
+        event.setTitle("Event with requests");
+        event.setAnnotation("Annotation of the event with requests");
+        event.setDescription("Description of the event with requests");
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(10));
+        event.setParticipantLimit(10);
+        event.setRequestModeration(false);
+        event.setState(EventState.PUBLISHED);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
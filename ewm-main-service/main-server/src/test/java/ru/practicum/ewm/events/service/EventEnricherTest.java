@@ -0,0 +1,63 @@
+package ru.practicum.ewm.events.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.events.dto.EventShortDto;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.users.model.User;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EventEnricherTest {
+
+    private final StatsFacade statsFacade = mock(StatsFacade.class);
+    private final EventEnricher eventEnricher = new EventEnricher(statsFacade);
+
+    @Test
+    void toShortDtosByGroup_shouldLoadViewsOnceForAllGroups() {
+        when(statsFacade.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(
+                Map.of("/events/1", 5L, "/events/2", 7L)));
+
+        Event first = event(1L);
+        Event second = event(2L);
+        Event third = event(3L);
+        Map<Long, List<Event>> groups = new LinkedHashMap<>();
+        groups.put(10L, List.of(first, second));
+        groups.put(20L, List.of(second, third));
+        groups.put(30L, List.of());
+
+        Map<Long, List<EventShortDto>> result = eventEnricher.toShortDtosByGroup(groups);
+
+        // событие из двух подборок запрашивается один раз
+        verify(statsFacade, times(1)).getViewsAsync(List.of("/events/1", "/events/2", "/events/3"));
+        verifyNoMoreInteractions(statsFacade);
+
+        assertEquals(List.of(10L, 20L, 30L), List.copyOf(result.keySet()));
+        assertEquals(List.of(5L, 7L), result.get(10L).stream().map(EventShortDto::getViews).toList());
+        assertEquals(List.of(7L, 0L), result.get(20L).stream().map(EventShortDto::getViews).toList());
+        assertEquals(List.of(), result.get(30L));
+        assertEquals(3L, result.get(20L).get(1).getConfirmedRequests());
+    }
+
+    private static Event event(long id) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Концерты");
+
+        Event e = new Event();
+        e.setId(id);
+        e.setTitle("Событие " + id);
+        e.setAnnotation("Аннотация события " + id);
+        e.setCategory(category);
+        e.setInitiator(new User(1L, "Организатор", "org@example.com"));
+        e.setConfirmedRequests(id);
+        return e;
+    }
+}
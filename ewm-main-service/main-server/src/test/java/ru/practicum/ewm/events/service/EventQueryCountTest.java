@@ -0,0 +1,151 @@
+package ru.practicum.ewm.events.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.events.model.PublicEventSort;
+import ru.practicum.ewm.events.model.TextSearchMode;
+import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.users.model.User;
+import ru.practicum.ewm.users.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EventQueryCountTest {
+
+    private static final int EVENTS = 6;
+
+    @MockBean
+    private StatsFacade statsFacade;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Long> userIds;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(statsFacade.getViews(any())).thenReturn(Map.of());
+        when(statsFacade.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+        when(statsFacade.getViewsAfterHitAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        // у каждого события свои категория и инициатор: при ленивой загрузке это был бы отдельный select на каждое
+        userIds = new ArrayList<>();
+        long suffix = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            User user = userRepository.save(User.builder()
+                    .name("Counter " + i)
+                    .email("counter-" + suffix + "-" + i + "@mail.ru")
+                    .build());
+            Category c = new Category();
+            c.setName("Query count " + suffix + " " + i);
+            c = categoryRepository.save(c);
+            if (category == null) category = c;
+            saveEvent(user, c);
+            userIds.add(user.getId());
+        }
+    }
+
+    @Test
+    void adminSearch_statementCountShouldNotDependOnPageSize() {
+        long small = statements(() -> eventService.searchAdmin(userIds, null, null, null, null, 0, 2, null));
+        long large = statements(() -> eventService.searchAdmin(userIds, null, null, null, null, 0, EVENTS, null));
+
+        assertEquals(1, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void publicSearch_statementCountShouldNotDependOnPageSize() {
+        long small = statements(() -> publicSearch(2));
+        long large = statements(() -> publicSearch(EVENTS));
+
+        assertEquals(1, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void publicEvent_shouldBeLoadedWithCategoryAndInitiatorInOneStatement() {
+        Event event = eventRepository.findAll().getFirst();
+
+        assertEquals(1, statements(() -> eventService.getPublicEvent(event.getId(), new MockHttpServletRequest())));
+    }
+
+    @Test
+    void publicReads_shouldNotHydrateEntities() {
+        Event event = eventRepository.findAll().getFirst();
+
+        statistics.clear();
+        publicSearch(EVENTS);
+        eventService.getPublicEvent(event.getId(), new MockHttpServletRequest());
+
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private void publicSearch(int size) {
+        eventService.getPublicEvents(null, TextSearchMode.SUBSTRING, null, null, null, null, false,
+                PublicEventSort.EVENT_DATE, 0, size, null, new MockHttpServletRequest());
+    }
+
+    private long statements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void saveEvent(User user, Category category) {
+        GeoLocation location = new GeoLocation();
+        location.setLat(55.75f);
+        location.setLon(37.61f);
+
+        Event event = new Event();
+        event.setTitle("Event for query count");
+        event.setAnnotation("Annotation of the event for query count");
+        event.setDescription("Description of the event for query count");
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(10));
+        event.setState(EventState.PUBLISHED);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setPublishedOn(LocalDateTime.now());
+        eventRepository.save(event);
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.ewm.events.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.events.dto.EventShortDto;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.events.model.PublicEventSort;
+import ru.practicum.ewm.events.model.TextSearchMode;
+import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.users.model.User;
+import ru.practicum.ewm.users.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EventTextSearchTest {
+
+    @MockBean
+    private StatsFacade statsFacade;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void getPublicEvents_fullText_shouldRankAnnotationMatchesFirst() {
+        when(statsFacade.getViews(any())).thenReturn(Map.of());
+        when(statsFacade.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+        User user = userRepository.save(User.builder().name("Searcher").email("text-search@mail.ru").build());
+        Category category = new Category();
+        category.setName("Text search");
+        category = categoryRepository.save(category);
+
+        Event inDescription = saveEvent(user, category, 1, "Open air evening in the park",
+                "Bring friends: a night of Jazz under the stars");
+        Event inAnnotation = saveEvent(user, category, 20, "Jazz quartet live in the park",
+                "Four musicians and an open stage for everyone");
+        saveEvent(user, category, 5, "Chess tournament for beginners",
+                "Rapid games with a coach and analysis afterwards");
+
+        List<Long> relevance = ids(eventService.getPublicEvents("jazz", TextSearchMode.FULL_TEXT,
+                List.of(category.getId()), null, null, null, false, null, 0, 10, null, new MockHttpServletRequest()).items());
+        assertEquals(List.of(inAnnotation.getId(), inDescription.getId()), relevance);
+
+        // при явной сортировке порядок задаёт она, а не релевантность
+        List<Long> byDate = ids(eventService.getPublicEvents("jazz", TextSearchMode.FULL_TEXT,
+                List.of(category.getId()), null, null, null, false, PublicEventSort.EVENT_DATE, 0, 10, null,
+                new MockHttpServletRequest()).items());
+        assertEquals(List.of(inDescription.getId(), inAnnotation.getId()), byDate);
+    }
+
+    private List<Long> ids(List<EventShortDto> events) {
+        return events.stream().map(EventShortDto::getId).toList();
+    }
+
+    private Event saveEvent(User user, Category category, int daysAhead, String annotation, String description) {
+        GeoLocation location = new GeoLocation();
+        location.setLat(55.75f);
+        location.setLon(37.61f);
+
+        Event event = new Event();
+        event.setTitle("Searchable event");
+        event.setAnnotation(annotation);
+        event.setDescription(description);
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(daysAhead));
+        event.setState(EventState.PUBLISHED);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.ewm.events.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.common.pagination.CursorPage;
+import ru.practicum.ewm.common.pagination.PageCursor;
+import ru.practicum.ewm.events.dto.EventShortDto;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.events.model.PublicEventSort;
+import ru.practicum.ewm.events.model.TextSearchMode;
+import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.exception.BadRequestException;
+import ru.practicum.ewm.users.model.User;
+import ru.practicum.ewm.users.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMostOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EventViewsSyncTest {
+
+    @MockBean
+    private StatsFacade statsFacade;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // у каждого теста своя история синхронизаций: первая — всегда полная
+    private EventViewsSync viewsSync;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        viewsSync = new EventViewsSync(statsFacade, eventRepository, transactionManager, true, 1000, 300000, 86400000);
+    }
+
+    @Test
+    void getPublicEvents_sortByViews_shouldPageBySyncedViews() {
+        User user = userRepository.save(User.builder().name("Viewer").email("views-sync@mail.ru").build());
+        Category category = new Category();
+        category.setName("Views sync");
+        category = categoryRepository.save(category);
+
+        Event first = saveEvent(user, category);
+        Event second = saveEvent(user, category);
+        Event third = saveEvent(user, category);
+
+        when(statsFacade.getViews(any())).thenReturn(Map.of());
+
+        when(statsFacade.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+        when(statsFacade.getAllViews()).thenReturn(Map.of(
+                "/events/" + first.getId(), 5L,
+                "/events/" + second.getId(), 10L,
+                "/events/" + third.getId(), 1L,
+                "/events", 100L
+        ));
+
+        assertEquals(3, viewsSync.sync());
+        assertEquals(0, viewsSync.sync());
+
+        CursorPage<EventShortDto> firstPage = search(category, 0, null);
+        assertEquals(List.of(second.getId(), first.getId()), ids(firstPage.items()));
+        assertEquals(List.of(third.getId()), ids(search(category, 2, null).items()));
+
+        // по курсору — та же страница, что и по смещению, и без курсора на последней
+        CursorPage<EventShortDto> nextPage = search(category, 0, firstPage.nextCursor());
+        assertEquals(List.of(third.getId()), ids(nextPage.items()));
+        assertNull(nextPage.nextCursor());
+    }
+
+    @Test
+    void sync_afterFullSync_shouldAskOnlyForRecentlyHitUris() {
+        User user = userRepository.save(User.builder().name("Viewer").email("views-sync-inc@mail.ru").build());
+        Category category = new Category();
+        category.setName("Views sync incremental");
+        category = categoryRepository.save(category);
+
+        Event hot = saveEvent(user, category);
+        Event cold = saveEvent(user, category);
+        String hotUri = "/events/" + hot.getId();
+
+        when(statsFacade.getAllViews()).thenReturn(Map.of(hotUri, 1L, "/events/" + cold.getId(), 1L));
+        viewsSync.sync();
+
+        when(statsFacade.getUrisHitSince(any())).thenReturn(Set.of(hotUri, "/events"));
+        when(statsFacade.getAllViews(List.of(hotUri))).thenReturn(Map.of(hotUri, 4L));
+
+        assertEquals(1, viewsSync.sync());
+        assertEquals(4L, eventRepository.findById(hot.getId()).orElseThrow().getViews());
+        assertEquals(1L, eventRepository.findById(cold.getId()).orElseThrow().getViews());
+        // полная выборка по всей истории — только при первом запуске
+        verify(statsFacade, atMostOnce()).getAllViews();
+    }
+
+    @Test
+    void getPublicEvents_cursorOfAnotherSort_shouldBeRejected() {
+        String idCursor = PageCursor.encodeId(1);
+
+        assertThrows(BadRequestException.class, () -> eventService.getPublicEvents(null, TextSearchMode.SUBSTRING,
+                null, null, null, null, false, PublicEventSort.VIEWS, 0, 2, idCursor, new MockHttpServletRequest()));
+        assertThrows(BadRequestException.class, () -> eventService.getPublicEvents(null, TextSearchMode.SUBSTRING,
+                null, null, null, null, false, PublicEventSort.EVENT_DATE, 0, 2, "not-a-cursor", new MockHttpServletRequest()));
+    }
+
+    private CursorPage<EventShortDto> search(Category category, int from, String after) {
+        return eventService.getPublicEvents(null, TextSearchMode.SUBSTRING, List.of(category.getId()), null, null, null, false,
+                PublicEventSort.VIEWS, from, 2, after, new MockHttpServletRequest());
+    }
+
+    private List<Long> ids(List<EventShortDto> events) {
+        return events.stream().map(EventShortDto::getId).toList();
+    }
+
+    private Event saveEvent(User user, Category category) {
+        GeoLocation location = new GeoLocation();
+        location.setLat(55.75f);
+        location.setLon(37.61f);
+
+        Event event = new Event();
+        event.setTitle("Event with views");
+        event.setAnnotation("Annotation of the event with views");
+        event.setDescription("Description of the event with views");
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(10));
+        event.setState(EventState.PUBLISHED);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
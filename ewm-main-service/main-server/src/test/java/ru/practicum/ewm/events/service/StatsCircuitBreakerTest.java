@@ -0,0 +1,112 @@
+package ru.practicum.ewm.events.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsCircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final StatsCircuitBreaker breaker =
+            new StatsCircuitBreaker(registry, true, 2, 1000, 200, 4, false, clock::get);
+
+    @AfterEach
+    void tearDown() {
+        breaker.stop();
+    }
+
+    @Test
+    void call_shouldOpenAfterThresholdFailures_andRejectWithoutCalling() {
+        assertThrows(IllegalStateException.class, () -> breaker.call(this::fail));
+        assertEquals(StatsCircuitBreaker.State.CLOSED, breaker.state());
+        assertThrows(IllegalStateException.class, () -> breaker.call(this::fail));
+        assertEquals(StatsCircuitBreaker.State.OPEN, breaker.state());
+
+        assertThrows(StatsCircuitBreaker.CallNotPermittedException.class, () -> breaker.call(this::succeed));
+        assertEquals(2, calls.get());
+        assertEquals(1, registry.counter("ewm.stats.circuit.calls", "result", "rejected").count());
+        assertEquals(1, registry.counter("ewm.stats.circuit.transitions", "from", "CLOSED", "to", "OPEN").count());
+        assertEquals(1.0, registry.get("ewm.stats.circuit.state").gauge().value());
+    }
+
+    @Test
+    void call_halfOpen_shouldCloseAfterSuccessfulProbe() {
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(StatsCircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals("ok", breaker.call(this::succeed));
+        assertEquals(StatsCircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(1, registry.counter("ewm.stats.circuit.transitions", "from", "HALF_OPEN", "to", "CLOSED").count());
+    }
+
+    @Test
+    void call_halfOpen_failedProbe_shouldReopen() {
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThrows(IllegalStateException.class, () -> breaker.call(this::fail));
+        assertEquals(StatsCircuitBreaker.State.OPEN, breaker.state());
+        assertThrows(StatsCircuitBreaker.CallNotPermittedException.class, () -> breaker.call(this::succeed));
+    }
+
+    @Test
+    void call_slowCall_shouldTimeOutWithinBudget_andCountAsFailure() {
+        long started = System.nanoTime();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        }));
+
+        assertTrue(e.getMessage().contains("timed out"));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, registry.counter("ewm.stats.circuit.calls", "result", "timeout").count());
+    }
+
+    @Test
+    void call_disabled_shouldCallDirectly() {
+        StatsCircuitBreaker disabled = new StatsCircuitBreaker(registry, false, 1, 1000, 200, 1, false, clock::get);
+
+        assertThrows(IllegalStateException.class, () -> disabled.call(this::fail));
+        assertThrows(IllegalStateException.class, () -> disabled.call(this::fail));
+        assertEquals(StatsCircuitBreaker.State.CLOSED, disabled.state());
+        disabled.stop();
+    }
+
+    @Test
+    void call_virtualThreads_shouldRunActionOnVirtualThread() {
+        StatsCircuitBreaker virtual = new StatsCircuitBreaker(registry, true, 2, 1000, 1000, 1, true, clock::get);
+
+        assertTrue(virtual.call(() -> Thread.currentThread().isVirtual()));
+        virtual.stop();
+    }
+
+    private void openCircuit() {
+        assertThrows(IllegalStateException.class, () -> breaker.call(this::fail));
+        assertThrows(IllegalStateException.class, () -> breaker.call(this::fail));
+    }
+
+    private String succeed() {
+        calls.incrementAndGet();
+        return "ok";
+    }
+
+    private String fail() {
+        calls.incrementAndGet();
+        throw new IllegalStateException("stats-server responded 503 SERVICE_UNAVAILABLE");
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.ewm.events.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import ru.practicum.stats.client.StatsClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StatsFacadeTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatsClient statsClient = mock(StatsClient.class);
+    private final ViewsCache viewsCache = new ViewsCache(registry, 100, 5000, 0, clock::get);
+    private final StatsCircuitBreaker circuitBreaker =
+            new StatsCircuitBreaker(registry, false, 5, 10000, 1000, 1, false, clock::get);
+
+    private final StatsFacade statsFacade = new StatsFacade(statsClient, null, viewsCache, circuitBreaker,
+            false, false, true, 2, 200, false);
+
+    @AfterEach
+    void tearDown() {
+        statsFacade.stop();
+        viewsCache.stop();
+        circuitBreaker.stop();
+    }
+
+    @Test
+    void getViewsAsync_shouldLoadWhileCallerKeepsWorking() throws Exception {
+        CountDownLatch callerDone = new CountDownLatch(1);
+        when(statsClient.getViews(any(), any(), any(), any(), any())).thenAnswer(inv -> {
+            // ответ возможен только после того, как вызывающий поток продолжил работу
+            assertTrue(callerDone.await(1, TimeUnit.SECONDS));
+            return Map.of("/events/1", 3L);
+        });
+
+        CompletableFuture<Map<String, Long>> views = statsFacade.getViewsAsync(List.of("/events/1"));
+        callerDone.countDown();
+
+        assertEquals(Map.of("/events/1", 3L), views.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void getViewsAfterHitAsync_shouldSendQueuedHitsBeforeReadingViews() throws Exception {
+        StatsHitBuffer hitBuffer = mock(StatsHitBuffer.class);
+        StatsFacade facade = new StatsFacade(statsClient, hitBuffer, viewsCache, circuitBreaker,
+                false, false, true, 2, 200, false);
+        when(statsClient.getViews(any(), any(), any(), any(), any())).thenReturn(Map.of("/events/1", 1L));
+
+        try {
+            assertEquals(Map.of("/events/1", 1L),
+                    facade.getViewsAfterHitAsync(List.of("/events/1")).get(1, TimeUnit.SECONDS));
+        } finally {
+            facade.stop();
+        }
+
+        InOrder order = inOrder(hitBuffer, statsClient);
+        order.verify(hitBuffer).flushQueue();
+        order.verify(statsClient).getViews(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getViewsAfterHitAsync_shouldBypassFreshCacheEntry_andUpdateIt() throws Exception {
+        StatsFacade facade = new StatsFacade(statsClient, mock(StatsHitBuffer.class), viewsCache, circuitBreaker,
+                false, false, true, 2, 200, false);
+        when(statsClient.getViews(any(), any(), any(), any(), any())).thenReturn(Map.of("/events/1", 3L));
+        facade.getViews(List.of("/events/1"));
+
+        when(statsClient.getViews(any(), any(), any(), any(), any())).thenReturn(Map.of("/events/1", 4L));
+        try {
+            assertEquals(Map.of("/events/1", 4L),
+                    facade.getViewsAfterHitAsync(List.of("/events/1")).get(1, TimeUnit.SECONDS));
+        } finally {
+            facade.stop();
+        }
+        assertEquals(Map.of("/events/1", 4L), viewsCache.lastKnown(List.of("/events/1")));
+    }
+
+    @Test
+    void getViewsAsync_afterDeadline_shouldReturnLastKnownViews() throws Exception {
+        when(statsClient.getViews(any(), any(), any(), any(), any())).thenReturn(Map.of("/events/1", 3L));
+        statsFacade.getViews(List.of("/events/1"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        when(statsClient.getViews(any(), any(), any(), any(), any())).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return Map.of("/events/1", 4L);
+        });
+
+        long started = System.nanoTime();
+        assertEquals(Map.of("/events/1", 3L), statsFacade.getViewsAsync(List.of("/events/1")).get(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+    }
+}
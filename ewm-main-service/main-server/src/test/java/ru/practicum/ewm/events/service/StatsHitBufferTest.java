@@ -0,0 +1,161 @@
+package ru.practicum.ewm.events.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StatsHitBufferTest {
+
+    private final StatsClient statsClient = mock(StatsClient.class);
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void flush_shouldSendAllQueuedHits() {
+        when(statsClient.saveHits(any())).thenReturn(ResponseEntity.status(201).build());
+        StatsHitBuffer buffer = buffer(100, StatsHitBuffer.OverflowPolicy.DROP_OLDEST);
+
+        for (int i = 0; i < 5; i++) {
+            buffer.enqueue(hit("/events/" + i));
+        }
+        assertEquals(5, buffer.pending());
+        verifyNoInteractions(statsClient);
+
+        buffer.flush();
+
+        assertEquals(0, buffer.pending());
+        assertEquals(5, buffer.flushedCount());
+        verify(statsClient, times(1)).saveHits(any());
+    }
+
+    @Test
+    void enqueue_dropOldest_shouldKeepNewestHits() {
+        StatsHitBuffer buffer = buffer(2, StatsHitBuffer.OverflowPolicy.DROP_OLDEST);
+
+        buffer.enqueue(hit("/events/1"));
+        buffer.enqueue(hit("/events/2"));
+        buffer.enqueue(hit("/events/3"));
+
+        assertEquals(2, buffer.pending());
+        assertEquals(1, buffer.droppedCount());
+    }
+
+    @Test
+    void enqueue_spill_shouldReplayOverflowOnFlush() {
+        when(statsClient.saveHits(any())).thenReturn(ResponseEntity.status(201).build());
+        StatsHitBuffer buffer = buffer(1, StatsHitBuffer.OverflowPolicy.SPILL);
+
+        buffer.enqueue(hit("/events/1"));
+        buffer.enqueue(hit("/events/2"));
+        assertTrue(Files.exists(tmp.resolve("hits.ndjson")));
+
+        buffer.flush();
+
+        assertEquals(2, buffer.flushedCount());
+        assertEquals(0, buffer.droppedCount());
+    }
+
+    @Test
+    void flush_spill_shouldKeepHitsWhenStatsServerIsDown() {
+        when(statsClient.saveHits(any())).thenThrow(new ResourceAccessException("Connection refused"));
+        StatsHitBuffer buffer = buffer(10, StatsHitBuffer.OverflowPolicy.SPILL);
+
+        buffer.enqueue(hit("/events/1"));
+        buffer.flush();
+
+        assertEquals(0, buffer.flushedCount());
+
+        reset(statsClient);
+        when(statsClient.saveHits(any())).thenReturn(ResponseEntity.status(201).build());
+        buffer.flush();
+
+        assertEquals(1, buffer.flushedCount());
+    }
+
+    @Test
+    void flush_spill_shouldQuarantineMalformedLines_andNotReplaySentHits() throws Exception {
+        when(statsClient.saveHits(any())).thenReturn(ResponseEntity.status(201).build());
+        StatsHitBuffer buffer = buffer(10, StatsHitBuffer.OverflowPolicy.SPILL);
+        ObjectMapper mapper = new ObjectMapper();
+        Files.write(tmp.resolve("hits.ndjson"), List.of(
+                mapper.writeValueAsString(hit("/events/1")),
+                "{not json",
+                mapper.writeValueAsString(hit("/events/2"))));
+
+        buffer.flush();
+        buffer.flush();
+
+        assertEquals(2, buffer.flushedCount());
+        verify(statsClient, times(1)).saveHits(any());
+        assertEquals(List.of("{not json"), Files.readAllLines(tmp.resolve("hits.ndjson.rejected")));
+        assertFalse(Files.exists(tmp.resolve("hits.ndjson.processing")));
+    }
+
+    @Test
+    void flush_spill_shouldResumeInterruptedReplayAfterLastSentBatch() throws Exception {
+        when(statsClient.saveHits(any())).thenReturn(ResponseEntity.status(201).build());
+        StatsHitBuffer buffer = buffer(10, StatsHitBuffer.OverflowPolicy.SPILL);
+        ObjectMapper mapper = new ObjectMapper();
+        // прошлая досылка отправила первые две строки и прервалась
+        Files.write(tmp.resolve("hits.ndjson.processing"), List.of(
+                mapper.writeValueAsString(hit("/events/1")),
+                mapper.writeValueAsString(hit("/events/2")),
+                mapper.writeValueAsString(hit("/events/3"))));
+        Files.writeString(tmp.resolve("hits.ndjson.offset"), "2");
+
+        buffer.flush();
+
+        assertEquals(1, buffer.flushedCount());
+        assertFalse(Files.exists(tmp.resolve("hits.ndjson.offset")));
+    }
+
+    @Test
+    void flushAsync_shouldSendInBackgroundWithoutBlockingCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(statsClient.saveHits(any())).thenAnswer(inv -> {
+            release.await(1, TimeUnit.SECONDS);
+            return ResponseEntity.status(201).build();
+        });
+        StatsHitBuffer buffer = new StatsHitBuffer(statsClient, new ObjectMapper(), new SimpleMeterRegistry(),
+                10, 10, 60000, 10, StatsHitBuffer.OverflowPolicy.DROP_OLDEST, tmp.resolve("hits.ndjson"));
+        buffer.start();
+        try {
+            buffer.enqueue(hit("/events/1"));
+
+            // отправка ещё висит, а вызывающий поток уже свободен
+            buffer.flushAsync();
+            verify(statsClient, timeout(500)).saveHits(any());
+            assertEquals(0, buffer.flushedCount());
+
+            release.countDown();
+        } finally {
+            buffer.stop();
+        }
+        assertEquals(1, buffer.flushedCount());
+    }
+
+    private StatsHitBuffer buffer(int capacity, StatsHitBuffer.OverflowPolicy policy) {
+        return new StatsHitBuffer(statsClient, new ObjectMapper(), new SimpleMeterRegistry(),
+                capacity, 10, 1000, 10, policy, tmp.resolve("hits.ndjson"));
+    }
+
+    private EndpointHitDto hit(String uri) {
+        return new EndpointHitDto("ewm-main-service", uri, "121.0.0.1", "2024-01-15 10:00:00");
+    }
+}
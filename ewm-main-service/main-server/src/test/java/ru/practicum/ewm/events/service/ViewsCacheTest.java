@@ -0,0 +1,109 @@
+package ru.practicum.ewm.events.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewsCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<List<String>> calls = new ArrayList<>();
+
+    private long views = 7;
+
+    private final Function<List<String>, Map<String, Long>> loader = uris -> {
+        synchronized (calls) {
+            calls.add(List.copyOf(uris));
+        }
+        return uris.stream().collect(Collectors.toMap(u -> u, u -> views));
+    };
+
+    @Test
+    void getAll_shouldLoadAllMissesInOneCall_andServeHitsFromCache() {
+        ViewsCache cache = cache(100);
+
+        assertEquals(Map.of("/events/1", 7L, "/events/2", 7L), cache.getAll(List.of("/events/1", "/events/2"), loader));
+        cache.getAll(List.of("/events/1", "/events/2", "/events/3"), loader);
+
+        assertEquals(List.of(List.of("/events/1", "/events/2"), List.of("/events/3")), calls);
+        assertEquals(2, registry.counter("ewm.stats.views.cache", "result", "hit").count());
+        assertEquals(3, registry.counter("ewm.stats.views.cache", "result", "miss").count());
+    }
+
+    @Test
+    void getAll_stale_shouldReturnOldValueAndRefreshInBackground() throws Exception {
+        ViewsCache cache = cache(100);
+        cache.getAll(List.of("/events/1"), loader);
+
+        views = 8;
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(Map.of("/events/1", 7L), cache.getAll(List.of("/events/1"), loader));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.counter("ewm.stats.views.cache.refresh", "result", "success").count() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Map.of("/events/1", 8L), cache.getAll(List.of("/events/1"), loader));
+        assertEquals(2, calls.size());
+        cache.stop();
+    }
+
+    @Test
+    void getAll_expired_shouldLoadSynchronously() {
+        ViewsCache cache = cache(100);
+        cache.getAll(List.of("/events/1"), loader);
+
+        views = 9;
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+
+        assertEquals(Map.of("/events/1", 9L), cache.getAll(List.of("/events/1"), loader));
+    }
+
+    @Test
+    void onHit_shouldDropZeroViews() {
+        views = 0;
+        ViewsCache cache = cache(100);
+        cache.getAll(List.of("/events/1"), loader);
+
+        cache.onHit("/events/1");
+        views = 1;
+
+        assertEquals(Map.of("/events/1", 1L), cache.getAll(List.of("/events/1"), loader));
+    }
+
+    @Test
+    void getAll_shouldKeepSizeBounded() {
+        ViewsCache cache = cache(2);
+
+        cache.getAll(List.of("/events/1", "/events/2", "/events/3"), loader);
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void lastKnown_shouldReturnExpiredValues_andSkipUnknownUris() {
+        ViewsCache cache = cache(100);
+        cache.getAll(List.of("/events/1"), loader);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+
+        assertEquals(Map.of("/events/1", 7L), cache.lastKnown(List.of("/events/1", "/events/2")));
+        assertEquals(1, calls.size());
+    }
+
+    private ViewsCache cache(int maxSize) {
+        return new ViewsCache(registry, maxSize, 5000, 60000, clock::get);
+    }
+}
@@ -0,0 +1,205 @@
+package ru.practicum.ewm.requests.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.events.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.ewm.events.model.Event;
+import ru.practicum.ewm.events.model.EventState;
+import ru.practicum.ewm.events.model.GeoLocation;
+import ru.practicum.ewm.events.model.RequestStatus;
+import ru.practicum.ewm.events.model.RequestUpdateStatus;
+import ru.practicum.ewm.events.repository.EventRepository;
+import ru.practicum.ewm.events.repository.ParticipationRequestRepository;
+import ru.practicum.ewm.events.service.EventService;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.users.model.User;
+import ru.practicum.ewm.users.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Параллельные заявки и подтверждения на одно событие не должны превышать лимит участников.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ParticipantLimitStressTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ParticipationRequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void addParticipationRequest_concurrent_shouldNotOverbook() throws Exception {
+        User initiator = user("stress-owner");
+        Event event = saveEvent(initiator, "Stress auto", 10, false);
+        List<User> users = users("stress-auto", 60);
+
+        AtomicInteger admitted = new AtomicInteger();
+        Queue<Throwable> unexpected = runConcurrently(users.size(), i -> {
+            requestService.addParticipationRequest(users.get(i).getId(), event.getId());
+            admitted.incrementAndGet();
+        });
+
+        assertTrue(unexpected.isEmpty(), () -> "unexpected errors: " + unexpected);
+        assertEquals(10, admitted.get());
+        assertEquals(10L, confirmedColumn(event));
+        assertEquals(10L, requestRepository.countByEvent_IdAndStatus(event.getId(), RequestStatus.CONFIRMED));
+    }
+
+    @Test
+    void changeRequestStatus_concurrentConfirms_shouldNotOverbook() throws Exception {
+        User initiator = user("stress-moderator");
+        Event event = saveEvent(initiator, "Stress moderated", 5, true);
+        List<Long> requestIds = new ArrayList<>();
+        for (User u : users("stress-moderated", 40)) {
+            requestIds.add(requestService.addParticipationRequest(u.getId(), event.getId()).getId());
+        }
+
+        AtomicInteger confirmed = new AtomicInteger();
+        Queue<Throwable> unexpected = runConcurrently(requestIds.size(), i -> {
+            EventRequestStatusUpdateRequest dto = new EventRequestStatusUpdateRequest();
+            dto.setRequestIds(List.of(requestIds.get(i)));
+            dto.setStatus(RequestUpdateStatus.CONFIRMED);
+            eventService.changeRequestStatus(initiator.getId(), event.getId(), dto);
+            confirmed.incrementAndGet();
+        });
+
+        assertTrue(unexpected.isEmpty(), () -> "unexpected errors: " + unexpected);
+        assertEquals(5, confirmed.get());
+        assertEquals(5L, confirmedColumn(event));
+        assertEquals(5L, requestRepository.countByEvent_IdAndStatus(event.getId(), RequestStatus.CONFIRMED));
+        // после исчерпания лимита оставшиеся заявки отклонены
+        assertEquals(0L, requestRepository.countByEvent_IdAndStatus(event.getId(), RequestStatus.PENDING));
+    }
+
+    @Test
+    void changeRequestStatus_withoutModeration_shouldStillRespectLimit() {
+        User initiator = user("limit-unmoderated");
+        Event event = saveEvent(initiator, "Unmoderated limit", 3, true);
+        List<Long> requestIds = new ArrayList<>();
+        for (User u : users("limit-unmoderated", 6)) {
+            requestIds.add(requestService.addParticipationRequest(u.getId(), event.getId()).getId());
+        }
+        // модерацию отключили, когда заявки уже ждали подтверждения
+        event.setRequestModeration(false);
+        eventRepository.save(event);
+
+        EventRequestStatusUpdateRequest all = new EventRequestStatusUpdateRequest();
+        all.setRequestIds(requestIds.subList(0, 4));
+        all.setStatus(RequestUpdateStatus.CONFIRMED);
+        assertThrows(ConflictException.class, () -> eventService.changeRequestStatus(initiator.getId(), event.getId(), all));
+
+        EventRequestStatusUpdateRequest fit = new EventRequestStatusUpdateRequest();
+        fit.setRequestIds(requestIds.subList(0, 3));
+        fit.setStatus(RequestUpdateStatus.CONFIRMED);
+        eventService.changeRequestStatus(initiator.getId(), event.getId(), fit);
+
+        assertEquals(3L, confirmedColumn(event));
+        assertEquals(0L, requestRepository.countByEvent_IdAndStatus(event.getId(), RequestStatus.PENDING));
+    }
+
+    private interface Task {
+        void run(int i);
+    }
+
+    // ConflictException — ожидаемый отказ при исчерпанном лимите, всё остальное собирается как ошибка
+    private Queue<Throwable> runConcurrently(int tasks, Task task) throws Exception {
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    try {
+                        start.await();
+                        task.run(n);
+                    } catch (ConflictException e) {
+                        // лимит исчерпан
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return unexpected;
+    }
+
+    private long confirmedColumn(Event event) {
+        return eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests();
+    }
+
+    private List<User> users(String prefix, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(user(prefix + "-" + i));
+        }
+        return users;
+    }
+
+    private User user(String name) {
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private Event saveEvent(User initiator, String categoryName, int limit, boolean moderation) {
+        Category category = new Category();
+        category.setName(categoryName);
+        category = categoryRepository.save(category);
+
+        GeoLocation location = new GeoLocation();
+        location.setLat(55.75f);
+        location.setLon(37.61f);
+
+        Event event = new Event();
+        event.setTitle("Hot ticket drop");
+        event.setAnnotation("Annotation of the hot ticket drop");
+        event.setDescription("Description of the hot ticket drop");
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(10));
+        event.setParticipantLimit(limit);
+        event.setRequestModeration(moderation);
+        event.setState(EventState.PUBLISHED);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setPublishedOn(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+}
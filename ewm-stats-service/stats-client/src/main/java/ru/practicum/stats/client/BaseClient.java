@@ -10,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import jakarta.annotation.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 public class BaseClient {
@@ -36,6 +37,17 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, parameters, body);
     }
 
+    /**
+     * GET с разбором ответа extractor'ом прямо из потока, без промежуточного дерева объектов.
+     *
+     * @throws HttpStatusCodeException если сервер ответил ошибкой
+     */
+    protected <R> R get(String path, Map<String, Object> parameters, ResponseExtractor<R> extractor) {
+        return rest.execute(path, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                extractor, parameters);
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method,
                                                           String path,
                                                           @Nullable Map<String, Object> parameters,
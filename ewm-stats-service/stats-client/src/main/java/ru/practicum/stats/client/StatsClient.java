@@ -1,13 +1,29 @@
 package ru.practicum.stats.client;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.stats.dto.EndpointHitDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -15,31 +31,118 @@ import java.util.List;
 import java.util.Map;
 
 @Service
-public class StatsClient extends BaseClient {
+public class StatsClient extends BaseClient implements DisposableBean {
 
     private static final String API_PREFIX = "";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final JsonFactory JSON = new JsonFactory();
 
+    private final CloseableHttpClient httpClient;
+
+    public StatsClient(String serverUrl, RestTemplateBuilder builder) {
+        this(serverUrl, builder, Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(1),
+                50, 50, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Соединения к stats-server берутся из пула Apache HttpClient и переиспользуются (keep-alive),
+     * поэтому запрос под нагрузкой не ждёт установки TCP-соединения.
+     *
+     * @param poolTimeout      сколько ждать свободного соединения из пула
+     * @param maxConnections   размер пула; все соединения идут на один хост, поэтому и лимит на маршрут
+     * @param idleTimeout      простаивающие дольше соединения закрываются фоновым потоком
+     */
     @Autowired
-    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatsClient(@Value("${stats-server.url}") String serverUrl,
+                       RestTemplateBuilder builder,
+                       @Value("${stats-server.http.connect-timeout:2s}") Duration connectTimeout,
+                       @Value("${stats-server.http.read-timeout:5s}") Duration readTimeout,
+                       @Value("${stats-server.http.pool-timeout:1s}") Duration poolTimeout,
+                       @Value("${stats-server.http.max-connections:50}") int maxConnections,
+                       @Value("${stats-server.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+                       @Value("${stats-server.http.idle-timeout:30s}") Duration idleTimeout) {
+        this(serverUrl, builder, HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.of(connectTimeout))
+                                .setSocketTimeout(Timeout.of(readTimeout))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .evictExpiredConnections()
+                .build());
+    }
+
+    private StatsClient(String serverUrl, RestTemplateBuilder builder, CloseableHttpClient httpClient) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
                         .build()
         );
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
     }
 
     public ResponseEntity<Object> saveHit(EndpointHitDto hitDto) {
         return post("/hit", hitDto);
     }
 
+    public ResponseEntity<Object> saveHits(List<EndpointHitDto> hits) {
+        return post("/hit/batch", hits);
+    }
+
     public ResponseEntity<Object> getStats(LocalDateTime start,
                                            LocalDateTime end,
                                            List<String> uris,
                                            Boolean unique) {
-        String path = "/stats?start={start}&end={end}";
+        return getStats(start, end, uris, unique, null);
+    }
 
+    // approximate=true: уникальные посетители считаются по HyperLogLog-скетчам (погрешность в X-Stats-Error-Bound)
+    public ResponseEntity<Object> getStats(LocalDateTime start,
+                                           LocalDateTime end,
+                                           List<String> uris,
+                                           Boolean unique,
+                                           Boolean approximate) {
         Map<String, Object> parameters = new HashMap<>();
+        return get(statsPath(start, end, uris, unique, approximate, parameters), parameters);
+    }
+
+    /**
+     * Просмотры по uri из /stats. Ответ читается потоковым парсером сразу в карту:
+     * без дерева LinkedHashMap и без промежуточных ViewStatsDto.
+     *
+     * @throws HttpStatusCodeException если сервер статистики ответил ошибкой
+     */
+    public Map<String, Long> getViews(LocalDateTime start,
+                                      LocalDateTime end,
+                                      List<String> uris,
+                                      Boolean unique,
+                                      Boolean approximate) {
+        Map<String, Object> parameters = new HashMap<>();
+        Map<String, Long> views = get(statsPath(start, end, uris, unique, approximate, parameters), parameters,
+                response -> readViews(response.getBody()));
+        return views == null ? Map.of() : views;
+    }
+
+    private String statsPath(LocalDateTime start,
+                             LocalDateTime end,
+                             List<String> uris,
+                             Boolean unique,
+                             Boolean approximate,
+                             Map<String, Object> parameters) {
+        String path = "/stats?start={start}&end={end}";
+
         parameters.put("start", start.format(FORMATTER));
         parameters.put("end", end.format(FORMATTER));
 
@@ -54,7 +157,40 @@ public class StatsClient extends BaseClient {
             parameters.put("unique", unique);
         }
 
-        return get(path, parameters);
+        if (approximate != null) {
+            path += "&approximate={approximate}";
+            parameters.put("approximate", approximate);
+        }
+
+        return path;
+    }
+
+    // [{"app": ..., "uri": ..., "hits": ...}, ...]; неизвестные поля пропускаются
+    protected static Map<String, Long> readViews(InputStream body) throws IOException {
+        Map<String, Long> views = new HashMap<>();
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) return views;
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String uri = null;
+                long hits = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("uri".equals(field)) {
+                        uri = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    } else if ("hits".equals(field)) {
+                        hits = value == JsonToken.VALUE_NULL ? 0L : parser.getLongValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (uri != null) {
+                    views.put(uri, hits);
+                }
+            }
+        }
+        return views;
     }
 
     private Map<String, Object> createParameters(LocalDateTime start, LocalDateTime end,
@@ -7,10 +7,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.stats.dto.EndpointHitDto;
 
+import java.io.ByteArrayInputStream;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +61,25 @@ class StatsClientTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
+    @Test
+    void saveHits_shouldPostBatch() {
+        List<EndpointHitDto> hits = List.of(
+                new EndpointHitDto("test", "/test/1", "127.0.0.1", "2024-01-15 10:00:00"),
+                new EndpointHitDto("test", "/test/2", "127.0.0.1", "2024-01-15 10:00:01")
+        );
+
+        when(restTemplate.exchange(
+                eq("/hit/batch"),
+                eq(HttpMethod.POST),
+                any(HttpEntity.class),
+                eq(Object.class)
+        )).thenReturn(ResponseEntity.status(HttpStatus.CREATED).build());
+
+        ResponseEntity<Object> response = statsClient.saveHits(hits);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
     @Test
     void getStats_shouldCallCorrectEndpoint() {
         LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
@@ -118,4 +140,47 @@ class StatsClientTest {
         assertNotNull(response);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
+
+    @Test
+    void readViews_shouldMapUriToHits() throws Exception {
+        String json = """
+                [{"app":"ewm-main-service","uri":"/events/1","hits":5,"extra":{"a":[1,2]}},
+                 {"app":"ewm-main-service","uri":"/events/2","hits":null},
+                 {"app":"ewm-main-service","hits":7}]
+                """;
+
+        Map<String, Long> views = StatsClient.readViews(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(Map.of("/events/1", 5L, "/events/2", 0L), views);
+    }
+
+    @Test
+    void getViews_shouldThrowOnServerError() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 31, 23, 59);
+
+        when(restTemplate.execute(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(),
+                any(),
+                anyMap()
+        )).thenThrow(new org.springframework.web.client.HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThrows(org.springframework.web.client.HttpServerErrorException.class,
+                () -> statsClient.getViews(start, end, List.of("/events/1"), true, null));
+    }
+
+    @Test
+    void client_shouldUsePooledTransport() throws Exception {
+        StatsClient client = new StatsClient("http://localhost:9090", new RestTemplateBuilder());
+
+        Field restField = BaseClient.class.getDeclaredField("rest");
+        restField.setAccessible(true);
+        RestTemplate rest = (RestTemplate) restField.get(client);
+
+        assertInstanceOf(HttpComponentsClientHttpRequestFactory.class, rest.getRequestFactory());
+        client.destroy();
+    }
 }
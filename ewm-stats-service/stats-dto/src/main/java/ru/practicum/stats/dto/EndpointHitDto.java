@@ -1,5 +1,7 @@
 package ru.practicum.stats.dto;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,9 +13,18 @@ import lombok.NoArgsConstructor;
 @Builder
 public class EndpointHitDto {
     private Long id;
+
+    @NotBlank
     private String app;
+
+    @NotBlank
     private String uri;
+
+    @NotBlank
     private String ip;
+
+    @NotBlank
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}", message = "формат yyyy-MM-dd HH:mm:ss")
     private String timestamp;
 
     // Конструктор, который ожидают тесты без id
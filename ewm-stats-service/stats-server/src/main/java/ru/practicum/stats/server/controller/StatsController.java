@@ -1,37 +1,75 @@
 package ru.practicum.stats.server.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 import ru.practicum.stats.server.service.StatsService;
+import ru.practicum.stats.server.sketch.HyperLogLog;
 
 @RestController
 @RequiredArgsConstructor
 public class StatsController {
 
     private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final int NDJSON_CHUNK_SIZE = 1000;
+    private static final String ERROR_BOUND_HEADER = "X-Stats-Error-Bound";
 
     private final StatsService statsService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
-    public void hit(@RequestBody EndpointHitDto endpointHitDto) {
+    public void hit(@Valid @RequestBody EndpointHitDto endpointHitDto) {
         statsService.saveHit(endpointHitDto);
     }
 
+    @PostMapping(value = "/hit/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void hitBatch(@RequestBody List<EndpointHitDto> endpointHitDtos) {
+        for (int i = 0; i < endpointHitDtos.size(); i++) {
+            validate(validator, i + 1, endpointHitDtos.get(i));
+        }
+        statsService.saveHits(endpointHitDtos);
+    }
+
+    // NDJSON читаем потоком и сохраняем кусками, не держа весь запрос в памяти; весь запрос — одна транзакция,
+    // и ошибка разбора или проверки любой строки отклоняет его целиком
+    @PostMapping(value = "/hit/batch", consumes = APPLICATION_NDJSON)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void hitBatchStream(InputStream body) throws IOException {
+        try (MappingIterator<EndpointHitDto> it = objectMapper.readerFor(EndpointHitDto.class).readValues(body)) {
+            statsService.saveHits(new ValidatingIterator(it, validator), NDJSON_CHUNK_SIZE);
+        }
+    }
+
     @GetMapping("/stats")
-    public List<ViewStatsDto> getStats(
+    public ResponseEntity<List<ViewStatsDto>> getStats(
             @RequestParam
             @DateTimeFormat(pattern = DATE_TIME_PATTERN)
             LocalDateTime start,
@@ -44,8 +82,69 @@ public class StatsController {
             List<String> uris,
 
             @RequestParam(defaultValue = "false")
-            boolean unique
+            boolean unique,
+
+            @RequestParam(defaultValue = "false")
+            boolean approximate
     ) {
-        return statsService.getStats(start, end, uris, unique);
+        List<ViewStatsDto> stats = statsService.getStats(start, end, uris, unique, approximate);
+        if (!unique || !approximate) {
+            return ResponseEntity.ok(stats);
+        }
+
+        // относительная стандартная ошибка оценки уникальных посетителей
+        return ResponseEntity.ok()
+                .header(ERROR_BOUND_HEADER, String.format(Locale.ROOT, "%.4f", HyperLogLog.relativeError()))
+                .body(stats);
+    }
+
+    private static final class ValidatingIterator implements Iterator<EndpointHitDto> {
+
+        private final MappingIterator<EndpointHitDto> source;
+        private final Validator validator;
+        private int line;
+
+        ValidatingIterator(MappingIterator<EndpointHitDto> source, Validator validator) {
+            this.source = source;
+            this.validator = validator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return source.hasNextValue();
+            } catch (IOException e) {
+                throw invalid(line + 1, e.getMessage());
+            }
+        }
+
+        @Override
+        public EndpointHitDto next() {
+            line++;
+            EndpointHitDto hit;
+            try {
+                hit = source.nextValue();
+            } catch (IOException e) {
+                throw invalid(line, e.getMessage());
+            }
+
+            validate(validator, line, hit);
+            return hit;
+        }
+    }
+
+    // те же проверки, что и @Valid у POST /hit, с номером хита в ответе
+    private static void validate(Validator validator, int n, EndpointHitDto hit) {
+        if (hit == null) throw invalid(n, "пустой хит");
+
+        Set<ConstraintViolation<EndpointHitDto>> violations = validator.validate(hit);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<EndpointHitDto> v = violations.iterator().next();
+            throw invalid(n, v.getPropertyPath() + " " + v.getMessage());
+        }
+    }
+
+    private static ResponseStatusException invalid(int n, String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Хит #" + n + ": " + reason);
     }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.stats.server.counter;
+
+/**
+ * Откуда берётся неуникальная статистика.
+ */
+public enum CounterMode {
+    /**
+     * Только из базы.
+     */
+    DB,
+    /**
+     * Запросы, целиком попадающие в окно stats.counters.window, считаются по счётчикам в памяти.
+     */
+    MEMORY
+}
@@ -0,0 +1,264 @@
+package ru.practicum.stats.server.counter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.EndpointHitRepository;
+import ru.practicum.stats.server.repository.MinuteCount;
+import ru.practicum.stats.server.sketch.AppUri;
+
+/**
+ * Поминутные счётчики хитов по (app, uri) за последнее окно (stats.counters.window) в памяти;
+ * включаются stats.counters.mode=MEMORY. Хиты по-прежнему сначала пишутся в базу, счётчик увеличивается
+ * после коммита, поэтому память — производная от stats_hit и при старте строится из неё заново.
+ * Периодически закрытые минуты последних reconcile-lookback перечитываются из базы: так в счётчики
+ * попадают хиты, сохранённые другими экземплярами сервера или пропущенные при перестроении.
+ * <p>
+ * Для каждой минуты хранится время первого и последнего хита: если граница запроса делит минуту,
+ * в которой есть хиты по обе стороны границы, ответ из памяти невозможен и запрос уходит в базу.
+ * Запросы, начинающиеся раньше окна, делятся по {@link #coveredFromHour()}: начало считается в базе.
+ */
+@Slf4j
+@Component
+public class HitCounters {
+
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final EndpointHitRepository hitRepository;
+
+    private final boolean enabled;
+    private final Duration window;
+    private final Duration reconcileLookback;
+
+    private final NavigableMap<LocalDateTime, MinuteBucket> buckets = new ConcurrentSkipListMap<>();
+
+    // до перестроения после старта и до начала окна счётчики неполны
+    private volatile boolean ready;
+    private volatile LocalDateTime coveredFrom = FAR_FUTURE;
+
+    private final Counter memoryReads;
+    private final Counter dbReads;
+
+    public HitCounters(EndpointHitRepository hitRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${stats.counters.mode:DB}") CounterMode mode,
+                       @Value("${stats.counters.window:PT24H}") Duration window,
+                       @Value("${stats.counters.reconcile-lookback:PT10M}") Duration reconcileLookback) {
+        this.hitRepository = hitRepository;
+        this.enabled = mode == CounterMode.MEMORY;
+        this.window = window;
+        this.reconcileLookback = reconcileLookback;
+
+        this.memoryReads = meterRegistry.counter("stats.counters.reads", "source", "memory");
+        this.dbReads = meterRegistry.counter("stats.counters.reads", "source", "db");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) return;
+
+        try {
+            rebuild(LocalDateTime.now());
+        } catch (Exception e) {
+            // статистика продолжит отвечать из базы
+            log.warn("Hit counters rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.counters.reconcile-interval-ms:60000}",
+            initialDelayString = "${stats.counters.reconcile-interval-ms:60000}")
+    public void scheduledReconcile() {
+        if (!enabled || !ready) return;
+
+        try {
+            reconcile(LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Hit counters reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Перечитывает из базы всё окно до now, включая хиты с hit_time в будущем.
+     */
+    public void rebuild(LocalDateTime now) {
+        LocalDateTime from = floorMinute(now.minus(window));
+        coveredFrom = from;
+        reload(from, FAR_FUTURE);
+        ready = true;
+        log.info("Hit counters: loaded {} minute(s) since {}", buckets.size(), from);
+    }
+
+    /**
+     * Сдвигает окно и перечитывает закрытые минуты за последние reconcile-lookback.
+     */
+    public void reconcile(LocalDateTime now) {
+        LocalDateTime from = floorMinute(now.minus(window));
+        coveredFrom = from;
+        buckets.headMap(from, false).clear();
+
+        LocalDateTime current = floorMinute(now);
+        reload(latest(from, floorMinute(now.minus(reconcileLookback))), current);
+    }
+
+    /**
+     * Учитывает хиты после коммита текущей транзакции (сразу, если транзакции нет).
+     */
+    public void record(Collection<EndpointHit> hits) {
+        if (!enabled || hits.isEmpty()) return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hits.forEach(this::add);
+            return;
+        }
+        List<EndpointHit> committed = List.copyOf(hits);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed.forEach(HitCounters.this::add);
+            }
+        });
+    }
+
+    /**
+     * Неуникальная статистика за [start, end] из памяти.
+     *
+     * @param uris фильтр по uri; {@code null} или пустой — без фильтра
+     * @return пусто, если ответить из памяти нельзя и нужно идти в базу
+     */
+    public Optional<List<ViewStatsDto>> getStats(LocalDateTime start, LocalDateTime end, Collection<String> uris) {
+        if (!enabled) return Optional.empty();
+
+        Optional<List<ViewStatsDto>> stats = ready && !start.isBefore(coveredFrom)
+                ? count(start, end, uris == null || uris.isEmpty() ? null : new HashSet<>(uris))
+                : Optional.empty();
+        (stats.isPresent() ? memoryReads : dbReads).increment();
+        return stats;
+    }
+
+    /**
+     * Начало полного часа, с которого память покрывает окно: более ранняя часть запроса считается
+     * в базе по агрегатам, а хвост от этой границы — в памяти.
+     *
+     * @return пусто, если счётчики выключены или ещё не построены
+     */
+    public Optional<LocalDateTime> coveredFromHour() {
+        if (!enabled || !ready) return Optional.empty();
+
+        LocalDateTime from = coveredFrom;
+        LocalDateTime hour = from.truncatedTo(ChronoUnit.HOURS);
+        return Optional.of(hour.equals(from) ? from : hour.plusHours(1));
+    }
+
+    private Optional<List<ViewStatsDto>> count(LocalDateTime start, LocalDateTime end, Set<String> uris) {
+        LocalDateTime first = floorMinute(start);
+        LocalDateTime last = floorMinute(end);
+        long from = micros(start);
+        long to = micros(end);
+
+        Map<AppUri, Long> hits = new HashMap<>();
+        for (Map.Entry<LocalDateTime, MinuteBucket> e : buckets.subMap(first, true, last, true).entrySet()) {
+            MinuteBucket bucket = e.getValue();
+            if (e.getKey().equals(first) || e.getKey().equals(last)) {
+                long firstHit = bucket.firstHit.get();
+                long lastHit = bucket.lastHit.get();
+                if (lastHit < from || firstHit > to) continue;
+                if (firstHit < from || lastHit > to) return Optional.empty();
+            }
+            bucket.hits.forEach((key, adder) -> {
+                if (uris == null || uris.contains(key.uri())) {
+                    hits.merge(key, adder.sum(), Long::sum);
+                }
+            });
+        }
+
+        return Optional.of(hits.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .map(e -> ViewStatsDto.builder()
+                        .app(e.getKey().app())
+                        .uri(e.getKey().uri())
+                        .hits(e.getValue())
+                        .build())
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .toList());
+    }
+
+    private void add(EndpointHit hit) {
+        if (!ready || hit.getHitTime().isBefore(coveredFrom)) return;
+
+        buckets.computeIfAbsent(floorMinute(hit.getHitTime()), k -> new MinuteBucket())
+                .add(new AppUri(hit.getApp(), hit.getUri()), micros(hit.getHitTime()));
+    }
+
+    // минуты [from, to) заменяются целиком; минуты без хитов удаляются
+    private void reload(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) return;
+
+        Map<LocalDateTime, MinuteBucket> loaded = new HashMap<>();
+        for (MinuteCount c : hitRepository.findMinuteCounts(from, to)) {
+            loaded.computeIfAbsent(c.minute(), k -> new MinuteBucket())
+                    .put(new AppUri(c.app(), c.uri()), c.hits(), micros(c.firstHit()), micros(c.lastHit()));
+        }
+
+        buckets.subMap(from, true, to, false).keySet().retainAll(loaded.keySet());
+        buckets.putAll(loaded);
+    }
+
+    private static LocalDateTime floorMinute(LocalDateTime t) {
+        return t.truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static long micros(LocalDateTime t) {
+        return TimeUnit.SECONDS.toMicros(t.toEpochSecond(ZoneOffset.UTC)) + TimeUnit.NANOSECONDS.toMicros(t.getNano());
+    }
+
+    private static final class MinuteBucket {
+
+        private final Map<AppUri, LongAdder> hits = new ConcurrentHashMap<>();
+        private final LongAccumulator firstHit = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator lastHit = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        void add(AppUri key, long hitMicros) {
+            hits.computeIfAbsent(key, k -> new LongAdder()).increment();
+            firstHit.accumulate(hitMicros);
+            lastHit.accumulate(hitMicros);
+        }
+
+        void put(AppUri key, long count, long firstMicros, long lastMicros) {
+            hits.computeIfAbsent(key, k -> new LongAdder()).add(count);
+            firstHit.accumulate(firstMicros);
+            lastHit.accumulate(lastMicros);
+        }
+    }
+}
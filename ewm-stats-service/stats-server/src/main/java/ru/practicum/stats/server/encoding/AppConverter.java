@@ -0,0 +1,31 @@
+package ru.practicum.stats.server.encoding;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * app хита хранится как id из словаря stats_app.
+ */
+@Component
+@Converter
+public class AppConverter implements AttributeConverter<String, Integer> {
+
+    private final HitDictionary dictionary;
+
+    // словарю нужен менеджер транзакций, а тот — EntityManagerFactory, которая создаёт этот конвертер
+    public AppConverter(@Lazy HitDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String app) {
+        return app == null ? null : dictionary.appId(app);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id) {
+        return id == null ? null : dictionary.app(id);
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.stats.server.encoding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Словари stats_app и stats_uri: в stats_hit вместо строк хранятся их целочисленные id.
+ * Соответствия неизменны, поэтому кэшируются в памяти (LRU на cache-size значений каждого словаря)
+ * и при приёме хитов база обычно не запрашивается. Новые значения добавляются в текущей транзакции —
+ * без второго соединения из пула на время транзакции приёма, — а в кэш попадают только после её коммита:
+ * при откате id пропадает вместе со строкой, и другой запрос не успеет сослаться на незакоммиченный id.
+ * Параллельная вставка того же значения ждёт коммита первой на уникальном индексе.
+ */
+@Component
+public class HitDictionary {
+
+    // не больше значений в одном IN (...): у PostgreSQL ограничено число параметров запроса
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int cacheSize;
+
+    private final Dictionary apps;
+    private final Dictionary uris;
+
+    public HitDictionary(JdbcTemplate jdbcTemplate,
+                         @Value("${stats.dictionary.cache-size:100000}") int cacheSize) {
+        if (cacheSize < 1) throw new IllegalArgumentException("stats.dictionary.cache-size must be greater than zero");
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.cacheSize = cacheSize;
+
+        this.apps = new Dictionary("stats_app", "name");
+        this.uris = new Dictionary("stats_uri", "uri");
+    }
+
+    public int appId(String app) {
+        return apps.ids(List.of(app)).get(app);
+    }
+
+    public int uriId(String uri) {
+        return uris.ids(List.of(uri)).get(uri);
+    }
+
+    /**
+     * @return id для каждого значения; отсутствующие в словаре значения добавляются
+     */
+    public Map<String, Integer> appIds(Collection<String> values) {
+        return apps.ids(values);
+    }
+
+    public Map<String, Integer> uriIds(Collection<String> values) {
+        return uris.ids(values);
+    }
+
+    public String app(int id) {
+        return apps.value(id);
+    }
+
+    public String uri(int id) {
+        return uris.value(id);
+    }
+
+    private final class Dictionary {
+
+        private final String table;
+        private final String column;
+
+        // обе карты под монитором Dictionary
+        private final Map<String, Integer> ids = lru();
+        private final Map<Integer, String> values = lru();
+
+        Dictionary(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+
+        Map<String, Integer> ids(Collection<String> requested) {
+            Map<String, Integer> result = new HashMap<>();
+            List<String> missing = new ArrayList<>();
+
+            synchronized (this) {
+                for (String value : new LinkedHashSet<>(requested)) {
+                    if (value == null) continue;
+                    Integer id = ids.get(value);
+                    if (id != null) {
+                        result.put(value, id);
+                    } else {
+                        missing.add(value);
+                    }
+                }
+            }
+            if (missing.isEmpty()) return result;
+
+            Map<String, Integer> loaded = intern(missing);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        rememberAll(loaded);
+                    }
+                });
+            } else {
+                rememberAll(loaded);
+            }
+            result.putAll(loaded);
+            return result;
+        }
+
+        private synchronized void rememberAll(Map<String, Integer> loaded) {
+            loaded.forEach(this::remember);
+        }
+
+        String value(int id) {
+            synchronized (this) {
+                String value = values.get(id);
+                if (value != null) return value;
+            }
+
+            String value = jdbcTemplate.queryForObject(
+                    "SELECT " + column + " FROM " + table + " WHERE id = ?", String.class, id);
+            synchronized (this) {
+                remember(value, id);
+            }
+            return value;
+        }
+
+        // чаще всего значение уже есть в базе (кэш другого экземпляра или после рестарта) — сначала ищем
+        private Map<String, Integer> intern(List<String> missing) {
+            Map<String, Integer> found = select(missing);
+            List<String> absent = missing.stream()
+                    .filter(v -> !found.containsKey(v))
+                    .toList();
+            if (absent.isEmpty()) return found;
+
+            // параллельная вставка того же значения другим запросом не ошибка: строку просто пропускаем
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + column + ") VALUES (?) ON CONFLICT DO NOTHING",
+                    absent, absent.size(), (ps, v) -> ps.setString(1, v));
+            found.putAll(select(absent));
+            return found;
+        }
+
+        private Map<String, Integer> select(List<String> values) {
+            Map<String, Integer> result = new HashMap<>();
+            String sql = "SELECT id, " + column + " FROM " + table + " WHERE " + column + " IN (:values)";
+            for (int from = 0; from < values.size(); from += LOOKUP_CHUNK_SIZE) {
+                List<String> chunk = values.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, values.size()));
+                namedJdbcTemplate.query(sql, Map.of("values", chunk),
+                        (RowCallbackHandler) rs -> result.put(rs.getString(2), rs.getInt(1)));
+            }
+            return result;
+        }
+
+        private void remember(String value, int id) {
+            ids.put(value, id);
+            values.put(id, value);
+        }
+    }
+
+    private <K, V> Map<K, V> lru() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+}
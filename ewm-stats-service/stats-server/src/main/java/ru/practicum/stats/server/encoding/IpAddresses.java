@@ -0,0 +1,92 @@
+package ru.practicum.stats.server.encoding;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Двоичное представление IP для колонки stats_hit.ip: IPv4 — 4 байта, IPv6 — 16.
+ * Значение, которое не является IP-литералом (например, мусор из X-Forwarded-For), хранится
+ * как UTF-8; если его длина совпала бы с длиной адреса, к нему дописывается нулевой байт.
+ */
+public final class IpAddresses {
+
+    private static final int IPV4_LENGTH = 4;
+    private static final int IPV6_LENGTH = 16;
+
+    // строка с двоеточием, начинающаяся с hex-цифры или ':', — для InetAddress это литерал, в DNS он не ходит
+    private static final Pattern IPV6_LITERAL = Pattern.compile("(?=.*:)[0-9a-fA-F:][0-9a-fA-F:.]*");
+
+    private IpAddresses() {
+    }
+
+    public static byte[] toBytes(String ip) {
+        byte[] v4 = parseIpv4(ip);
+        if (v4 != null) return v4;
+
+        if (IPV6_LITERAL.matcher(ip).matches()) {
+            try {
+                return InetAddress.getByName(ip).getAddress();
+            } catch (UnknownHostException e) {
+                // не IP — сохраняем как текст
+            }
+        }
+
+        byte[] text = ip.getBytes(StandardCharsets.UTF_8);
+        return isAddressLength(text.length) ? Arrays.copyOf(text, text.length + 1) : text;
+    }
+
+    public static String toString(byte[] bytes) {
+        if (isAddressLength(bytes.length)) {
+            try {
+                return InetAddress.getByAddress(bytes).getHostAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        int length = bytes.length;
+        if (isAddressLength(length - 1) && bytes[length - 1] == 0) {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return каноническая запись ip — та же строка, что вернётся после сохранения и чтения
+     */
+    public static String normalize(String ip) {
+        return ip == null ? null : toString(toBytes(ip));
+    }
+
+    private static boolean isAddressLength(int length) {
+        return length == IPV4_LENGTH || length == IPV6_LENGTH;
+    }
+
+    // строго четыре десятичных октета: "1.2.3" или "01.2.3.4" InetAddress понимает иначе, чем ожидается
+    private static byte[] parseIpv4(String ip) {
+        byte[] result = new byte[IPV4_LENGTH];
+        int part = 0;
+        int value = 0;
+        int digits = 0;
+
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i < ip.length() ? ip.charAt(i) : '.';
+            if (c == '.') {
+                if (digits == 0 || part == IPV4_LENGTH) return null;
+                result[part++] = (byte) value;
+                value = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (digits > 0 && value == 0) return null;
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) return null;
+            } else {
+                return null;
+            }
+        }
+        return part == IPV4_LENGTH ? result : null;
+    }
+}
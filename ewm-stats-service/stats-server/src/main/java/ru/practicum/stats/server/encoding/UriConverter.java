@@ -0,0 +1,30 @@
+package ru.practicum.stats.server.encoding;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * uri хита хранится как id из словаря stats_uri.
+ */
+@Component
+@Converter
+public class UriConverter implements AttributeConverter<String, Integer> {
+
+    private final HitDictionary dictionary;
+
+    public UriConverter(@Lazy HitDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String uri) {
+        return uri == null ? null : dictionary.uriId(uri);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id) {
+        return id == null ? null : dictionary.uri(id);
+    }
+}
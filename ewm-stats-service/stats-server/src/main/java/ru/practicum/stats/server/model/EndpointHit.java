@@ -5,9 +5,16 @@ import java.time.LocalDateTime;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
-
+import ru.practicum.stats.server.encoding.AppConverter;
+import ru.practicum.stats.server.encoding.IpConverter;
+import ru.practicum.stats.server.encoding.UriConverter;
+
+/**
+ * Сырой хит. app и uri хранятся как id из словарей stats_app / stats_uri, ip — в двоичном виде
+ * (см. IpAddresses); в сущности это по-прежнему строки.
+ */
 @Entity
-@Table(name = "endpoint_hit")
+@Table(name = "stats_hit")
 @Getter
 @Setter
 public class EndpointHit {
@@ -16,12 +23,15 @@ public class EndpointHit {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    @Convert(converter = AppConverter.class)
+    @Column(name = "app_id", nullable = false)
     private String app;
 
-    @Column(nullable = false, length = 1024)
+    @Convert(converter = UriConverter.class)
+    @Column(name = "uri_id", nullable = false)
     private String uri;
 
+    @Convert(converter = IpConverter.class)
     @Column(nullable = false, length = 64)
     private String ip;
 
@@ -0,0 +1,38 @@
+package ru.practicum.stats.server.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Предагрегированное число хитов по (app, uri) за один часовой интервал [bucketStart, bucketStart + 1h).
+ * Рядом хранится HyperLogLog-скетч IP за тот же час для приближённого подсчёта уникальных посетителей.
+ */
+@Entity
+@Table(name = "endpoint_hit_rollup",
+        indexes = @Index(name = "idx_endpoint_hit_rollup_bucket", columnList = "bucket_start"))
+@IdClass(EndpointHitRollupId.class)
+@Getter
+@Setter
+public class EndpointHitRollup {
+
+    @Id
+    @Column(nullable = false)
+    private String app;
+
+    @Id
+    @Column(nullable = false, length = 1024)
+    private String uri;
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long hits;
+
+    @Column(name = "ip_sketch", length = 8192)
+    private byte[] ipSketch;
+}
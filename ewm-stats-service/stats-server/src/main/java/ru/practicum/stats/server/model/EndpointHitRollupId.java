@@ -0,0 +1,26 @@
+package ru.practicum.stats.server.model;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class EndpointHitRollupId implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private String app;
+    private String uri;
+    private LocalDateTime bucketStart;
+}
@@ -0,0 +1,25 @@
+package ru.practicum.stats.server.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Состояние компактора: все хиты с hit_time раньше watermark уже учтены в endpoint_hit_rollup.
+ * Строка raw-retained-from хранит границу, раньше которой сырые хиты удалены по retention.
+ */
+@Entity
+@Table(name = "stats_rollup_state")
+@Getter
+@Setter
+public class RollupState {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime watermark;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.stats.server.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Словарь приложений для stats_hit.app_id; заполняется через HitDictionary.
+ */
+@Entity
+@Table(name = "stats_app")
+@Getter
+@Setter
+public class StatsApp {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.stats.server.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Словарь URI для stats_hit.uri_id; заполняется через HitDictionary.
+ */
+@Entity
+@Table(name = "stats_uri")
+@Getter
+@Setter
+public class StatsUri {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true, length = 1024)
+    private String uri;
+}
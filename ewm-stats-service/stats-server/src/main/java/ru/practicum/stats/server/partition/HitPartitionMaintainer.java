@@ -0,0 +1,179 @@
+package ru.practicum.stats.server.partition;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.service.RollupService;
+
+/**
+ * Обслуживает партиции stats_hit (PostgreSQL, PARTITION BY RANGE (hit_time)).
+ * Заранее создаёт партиции на precreate интервалов вперёд, а хиты вне созданных диапазонов
+ * попадают в stats_hit_default и переносятся в партицию при её создании. Если задан retention,
+ * удаляет целиком партиции старше retention, но только уже свёрнутые в endpoint_hit_rollup (до watermark).
+ * Уникальные посетители за удалённый период остаются только в скетчах агрегатов, поэтому точная
+ * уникальная статистика за него становится приближённой.
+ */
+@Slf4j
+@Component
+public class HitPartitionMaintainer {
+
+    static final String TABLE = "stats_hit";
+
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private static final DateTimeFormatter SQL_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter BOUND_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSSSSS]");
+    private static final Pattern BOUND = Pattern.compile("FROM \\((?:MINVALUE|'([^']+)')\\) TO \\('([^']+)'\\)");
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final RollupService rollupService;
+
+    private final boolean enabled;
+    private final PartitionInterval interval;
+    private final int precreate;
+    private final Duration retention;
+
+    public HitPartitionMaintainer(JdbcTemplate jdbc,
+                                  PlatformTransactionManager transactionManager,
+                                  RollupService rollupService,
+                                  @Value("${stats.partitions.enabled:true}") boolean enabled,
+                                  @Value("${stats.partitions.interval:DAY}") PartitionInterval interval,
+                                  @Value("${stats.partitions.precreate:7}") int precreate,
+                                  @Value("${stats.partitions.retention:#{null}}") Duration retention) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.rollupService = rollupService;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.precreate = precreate;
+        this.retention = retention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduledMaintain();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.partitions.maintenance-interval-ms:3600000}",
+            initialDelayString = "${stats.partitions.maintenance-interval-ms:3600000}")
+    public void scheduledMaintain() {
+        if (!enabled) return;
+
+        try {
+            maintain(LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    public void maintain(LocalDateTime now) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+
+        List<PartitionRange> existing = partitions();
+        for (LocalDateTime start : missing(existing, now, interval, precreate)) {
+            createPartition(start, interval.next(start));
+        }
+
+        if (retention == null) return;
+        LocalDateTime cutoff = retentionCutoff(now, retention, rollupService.watermark());
+        for (PartitionRange expired : expired(existing, cutoff)) {
+            // граница сохраняется вместе с удалением: точная уникальная статистика за удалённый период
+            // дальше считается по скетчам (см. StatsServiceImpl)
+            tx.executeWithoutResult(status -> {
+                rollupService.markRawHitsDroppedBefore(expired.to());
+                jdbc.execute("DROP TABLE " + expired.name());
+            });
+            log.info("Partitions: dropped {} (raw hits before {}, already rolled up)", expired.name(), expired.to());
+        }
+    }
+
+    /**
+     * @return начала интервалов от текущего до now + ahead, для которых ещё нет партиции
+     */
+    static List<LocalDateTime> missing(List<PartitionRange> existing,
+                                       LocalDateTime now,
+                                       PartitionInterval interval,
+                                       int ahead) {
+        List<LocalDateTime> result = new ArrayList<>();
+        LocalDateTime start = interval.floor(now);
+        for (int i = 0; i <= ahead; i++) {
+            LocalDateTime end = interval.next(start);
+            LocalDateTime from = start;
+            if (existing.stream().noneMatch(p -> p.overlaps(from, end))) {
+                result.add(start);
+            }
+            start = end;
+        }
+        return result;
+    }
+
+    /**
+     * Удалять можно только то, что старше retention и уже учтено в агрегатах.
+     *
+     * @return граница, партиции целиком раньше которой удаляются, или {@code null}, если удалять нечего
+     */
+    static LocalDateTime retentionCutoff(LocalDateTime now, Duration retention, LocalDateTime watermark) {
+        if (watermark == null) return null;
+        LocalDateTime byAge = now.minus(retention);
+        return byAge.isBefore(watermark) ? byAge : watermark;
+    }
+
+    static List<PartitionRange> expired(List<PartitionRange> existing, LocalDateTime cutoff) {
+        if (cutoff == null) return List.of();
+        return existing.stream()
+                .filter(p -> !p.to().isAfter(cutoff))
+                .toList();
+    }
+
+    static PartitionRange parseBound(String name, String bound) {
+        Matcher m = BOUND.matcher(bound);
+        if (!m.find()) return null;
+        LocalDateTime from = m.group(1) == null ? null : LocalDateTime.parse(m.group(1), BOUND_TIME);
+        return new PartitionRange(name, from, LocalDateTime.parse(m.group(2), BOUND_TIME));
+    }
+
+    private List<PartitionRange> partitions() {
+        return jdbc.query("""
+                        SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = CAST(? AS regclass)
+                        """,
+                        (rs, rowNum) -> parseBound(rs.getString("name"), rs.getString("bound")),
+                        TABLE).stream()
+                // DEFAULT-партиция диапазона не имеет
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // хиты этого диапазона, уже попавшие в DEFAULT, переносятся в новую партицию в той же транзакции
+    private void createPartition(LocalDateTime from, LocalDateTime to) {
+        String name = interval.partitionName(TABLE, from);
+        String range = "hit_time >= '" + SQL_TIME.format(from) + "' AND hit_time < '" + SQL_TIME.format(to) + "'";
+
+        tx.executeWithoutResult(status -> {
+            jdbc.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+            jdbc.execute("INSERT INTO " + name + " SELECT * FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            jdbc.execute("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            jdbc.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name
+                    + " FOR VALUES FROM ('" + SQL_TIME.format(from) + "') TO ('" + SQL_TIME.format(to) + "')");
+        });
+        log.info("Partitions: created {} [{}, {})", name, from, to);
+    }
+}
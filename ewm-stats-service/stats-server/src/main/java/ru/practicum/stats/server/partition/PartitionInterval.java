@@ -0,0 +1,55 @@
+package ru.practicum.stats.server.partition;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Ширина партиции stats_hit и формат суффикса её имени.
+ */
+public enum PartitionInterval {
+
+    DAY(DateTimeFormatter.ofPattern("yyyyMMdd")) {
+        @Override
+        public LocalDateTime floor(LocalDateTime t) {
+            return t.truncatedTo(ChronoUnit.DAYS);
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime start) {
+            return start.plusDays(1);
+        }
+    },
+
+    MONTH(DateTimeFormatter.ofPattern("yyyyMM")) {
+        @Override
+        public LocalDateTime floor(LocalDateTime t) {
+            return t.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime start) {
+            return start.plusMonths(1);
+        }
+    };
+
+    private final DateTimeFormatter suffix;
+
+    PartitionInterval(DateTimeFormatter suffix) {
+        this.suffix = suffix;
+    }
+
+    /**
+     * @return начало интервала, в который попадает t
+     */
+    public abstract LocalDateTime floor(LocalDateTime t);
+
+    /**
+     * @return начало следующего интервала
+     */
+    public abstract LocalDateTime next(LocalDateTime start);
+
+    public String partitionName(String table, LocalDateTime start) {
+        return table + "_p" + suffix.format(start);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.stats.server.partition;
+
+import java.time.LocalDateTime;
+
+/**
+ * Диапазон партиции [from, to); {@code from == null} — MINVALUE (партиция, в которую превращена
+ * таблица до перехода на партиционирование).
+ */
+public record PartitionRange(String name, LocalDateTime from, LocalDateTime to) {
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return (from == null || from.isBefore(end)) && to.isAfter(start);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.stats.server.repository;
+
+import java.util.List;
+
+import ru.practicum.stats.server.model.EndpointHit;
+
+public interface EndpointHitBatchRepository {
+
+    /**
+     * Сохраняет хиты пакетными INSERT-ами через JDBC, минуя persistence context.
+     *
+     * @param hits хиты для сохранения
+     * @return количество сохранённых хитов
+     */
+    int insertAll(List<EndpointHit> hits);
+}
@@ -0,0 +1,44 @@
+package ru.practicum.stats.server.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats.server.encoding.HitDictionary;
+import ru.practicum.stats.server.encoding.IpAddresses;
+import ru.practicum.stats.server.model.EndpointHit;
+
+@RequiredArgsConstructor
+public class EndpointHitBatchRepositoryImpl implements EndpointHitBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO stats_hit (app_id, uri_id, ip, hit_time)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    // размер одного JDBC-пакета; драйвер PostgreSQL с reWriteBatchedInserts склеит его в multi-row INSERT
+    private static final int JDBC_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HitDictionary dictionary;
+
+    @Override
+    public int insertAll(List<EndpointHit> hits) {
+        if (hits.isEmpty()) return 0;
+
+        // id словарей для всего пакета разом: промахи кэша добавляются одним запросом
+        Map<String, Integer> appIds = dictionary.appIds(hits.stream().map(EndpointHit::getApp).toList());
+        Map<String, Integer> uriIds = dictionary.uriIds(hits.stream().map(EndpointHit::getUri).toList());
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, hits, JDBC_BATCH_SIZE, (ps, hit) -> {
+            ps.setObject(1, appIds.get(hit.getApp()), Types.INTEGER);
+            ps.setObject(2, uriIds.get(hit.getUri()), Types.INTEGER);
+            ps.setBytes(3, hit.getIp() == null ? null : IpAddresses.toBytes(hit.getIp()));
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getHitTime()));
+        });
+        return hits.size();
+    }
+}
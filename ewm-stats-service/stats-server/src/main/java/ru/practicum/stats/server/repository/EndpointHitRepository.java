@@ -7,24 +7,39 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.stats.server.model.EndpointHit;
 
-public interface EndpointHitRepository extends JpaRepository<EndpointHit, Long> {
-
+/**
+ * Все запросы по сырым хитам ограничивают hit_time диапазоном с обеих сторон (или снизу для поиска
+ * первого хита), поэтому PostgreSQL отсекает партиции stats_hit вне интервала.
+ * Группировка идёт по id словарей; строки app и uri подставляются уже к сгруппированным строкам.
+ */
+public interface EndpointHitRepository extends JpaRepository<EndpointHit, Long>, EndpointHitBatchRepository,
+        MinuteCountRepository {
 
     @Query(value = """
-            SELECT app AS app, uri AS uri, COUNT(*) AS hits
-            FROM endpoint_hit
-            WHERE hit_time BETWEEN :start AND :end
-            GROUP BY app, uri
+            SELECT a.name AS app, u.uri AS uri, t.hits AS hits
+            FROM (
+                SELECT app_id, uri_id, COUNT(*) AS hits
+                FROM stats_hit
+                WHERE hit_time BETWEEN :start AND :end
+                GROUP BY app_id, uri_id
+            ) t
+            JOIN stats_app a ON a.id = t.app_id
+            JOIN stats_uri u ON u.id = t.uri_id
             ORDER BY hits DESC
             """, nativeQuery = true)
     List<ViewStatsProjection> findStats(@Param("start") LocalDateTime start,
                                         @Param("end") LocalDateTime end);
 
     @Query(value = """
-            SELECT app AS app, uri AS uri, COUNT(DISTINCT ip) AS hits
-            FROM endpoint_hit
-            WHERE hit_time BETWEEN :start AND :end
-            GROUP BY app, uri
+            SELECT a.name AS app, u.uri AS uri, t.hits AS hits
+            FROM (
+                SELECT app_id, uri_id, COUNT(DISTINCT ip) AS hits
+                FROM stats_hit
+                WHERE hit_time BETWEEN :start AND :end
+                GROUP BY app_id, uri_id
+            ) t
+            JOIN stats_app a ON a.id = t.app_id
+            JOIN stats_uri u ON u.id = t.uri_id
             ORDER BY hits DESC
             """, nativeQuery = true)
     List<ViewStatsProjection> findUniqueStats(@Param("start") LocalDateTime start,
@@ -32,11 +47,16 @@ public interface EndpointHitRepository extends JpaRepository<EndpointHit, Long>
 
 
     @Query(value = """
-            SELECT app AS app, uri AS uri, COUNT(*) AS hits
-            FROM endpoint_hit
-            WHERE hit_time BETWEEN :start AND :end
-              AND uri IN (:uris)
-            GROUP BY app, uri
+            SELECT a.name AS app, u.uri AS uri, t.hits AS hits
+            FROM (
+                SELECT app_id, uri_id, COUNT(*) AS hits
+                FROM stats_hit
+                WHERE hit_time BETWEEN :start AND :end
+                  AND uri_id IN (SELECT id FROM stats_uri WHERE uri IN (:uris))
+                GROUP BY app_id, uri_id
+            ) t
+            JOIN stats_app a ON a.id = t.app_id
+            JOIN stats_uri u ON u.id = t.uri_id
             ORDER BY hits DESC
             """, nativeQuery = true)
     List<ViewStatsProjection> findStatsByUris(@Param("start") LocalDateTime start,
@@ -44,14 +64,78 @@ public interface EndpointHitRepository extends JpaRepository<EndpointHit, Long>
                                               @Param("uris") List<String> uris);
 
     @Query(value = """
-            SELECT app AS app, uri AS uri, COUNT(DISTINCT ip) AS hits
-            FROM endpoint_hit
-            WHERE hit_time BETWEEN :start AND :end
-              AND uri IN (:uris)
-            GROUP BY app, uri
+            SELECT a.name AS app, u.uri AS uri, t.hits AS hits
+            FROM (
+                SELECT app_id, uri_id, COUNT(DISTINCT ip) AS hits
+                FROM stats_hit
+                WHERE hit_time BETWEEN :start AND :end
+                  AND uri_id IN (SELECT id FROM stats_uri WHERE uri IN (:uris))
+                GROUP BY app_id, uri_id
+            ) t
+            JOIN stats_app a ON a.id = t.app_id
+            JOIN stats_uri u ON u.id = t.uri_id
             ORDER BY hits DESC
             """, nativeQuery = true)
     List<ViewStatsProjection> findUniqueStatsByUris(@Param("start") LocalDateTime start,
                                                     @Param("end") LocalDateTime end,
                                                     @Param("uris") List<String> uris);
+
+    @Query("select min(h.hitTime) from EndpointHit h where h.hitTime >= :from")
+    LocalDateTime findFirstHitTimeFrom(@Param("from") LocalDateTime from);
+
+    // Полные часы [rollStart, rollEnd) берутся из endpoint_hit_rollup, края интервала — из сырых хитов
+    @Query(value = """
+            SELECT app AS app, uri AS uri, CAST(SUM(hits) AS BIGINT) AS hits
+            FROM (
+                SELECT app, uri, hits
+                FROM endpoint_hit_rollup
+                WHERE bucket_start >= :rollStart AND bucket_start < :rollEnd
+                UNION ALL
+                SELECT a.name AS app, u.uri AS uri, r.hits
+                FROM (
+                    SELECT app_id, uri_id, COUNT(*) AS hits
+                    FROM stats_hit
+                    WHERE (hit_time >= :start AND hit_time < :rollStart)
+                       OR (hit_time >= :rollEnd AND hit_time <= :end)
+                    GROUP BY app_id, uri_id
+                ) r
+                JOIN stats_app a ON a.id = r.app_id
+                JOIN stats_uri u ON u.id = r.uri_id
+            ) t
+            GROUP BY app, uri
+            ORDER BY hits DESC
+            """, nativeQuery = true)
+    List<ViewStatsProjection> findRolledUpStats(@Param("start") LocalDateTime start,
+                                                @Param("rollStart") LocalDateTime rollStart,
+                                                @Param("rollEnd") LocalDateTime rollEnd,
+                                                @Param("end") LocalDateTime end);
+
+    @Query(value = """
+            SELECT app AS app, uri AS uri, CAST(SUM(hits) AS BIGINT) AS hits
+            FROM (
+                SELECT app, uri, hits
+                FROM endpoint_hit_rollup
+                WHERE bucket_start >= :rollStart AND bucket_start < :rollEnd
+                  AND uri IN (:uris)
+                UNION ALL
+                SELECT a.name AS app, u.uri AS uri, r.hits
+                FROM (
+                    SELECT app_id, uri_id, COUNT(*) AS hits
+                    FROM stats_hit
+                    WHERE ((hit_time >= :start AND hit_time < :rollStart)
+                       OR (hit_time >= :rollEnd AND hit_time <= :end))
+                      AND uri_id IN (SELECT id FROM stats_uri WHERE uri IN (:uris))
+                    GROUP BY app_id, uri_id
+                ) r
+                JOIN stats_app a ON a.id = r.app_id
+                JOIN stats_uri u ON u.id = r.uri_id
+            ) t
+            GROUP BY app, uri
+            ORDER BY hits DESC
+            """, nativeQuery = true)
+    List<ViewStatsProjection> findRolledUpStatsByUris(@Param("start") LocalDateTime start,
+                                                      @Param("rollStart") LocalDateTime rollStart,
+                                                      @Param("rollEnd") LocalDateTime rollEnd,
+                                                      @Param("end") LocalDateTime end,
+                                                      @Param("uris") List<String> uris);
 }
@@ -0,0 +1,31 @@
+package ru.practicum.stats.server.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.stats.server.model.EndpointHitRollup;
+import ru.practicum.stats.server.model.EndpointHitRollupId;
+
+public interface EndpointHitRollupRepository extends JpaRepository<EndpointHitRollup, EndpointHitRollupId>,
+        EndpointHitRollupUpsert, IpSketchRepository {
+
+    // сворачивает сырые хиты за [from, to) в одну строку на (app, uri) с bucket_start = from
+    @Modifying
+    @Query(value = """
+            INSERT INTO endpoint_hit_rollup (app, uri, bucket_start, hits)
+            SELECT a.name, u.uri, :from, t.hits
+            FROM (
+                SELECT app_id, uri_id, COUNT(*) AS hits
+                FROM stats_hit
+                WHERE hit_time >= :from AND hit_time < :to
+                GROUP BY app_id, uri_id
+            ) t
+            JOIN stats_app a ON a.id = t.app_id
+            JOIN stats_uri u ON u.id = t.uri_id
+            """, nativeQuery = true)
+    int rollupRange(@Param("from") LocalDateTime from,
+                    @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,15 @@
+package ru.practicum.stats.server.repository;
+
+import java.util.List;
+
+import ru.practicum.stats.server.model.EndpointHitRollup;
+
+public interface EndpointHitRollupUpsert {
+
+    /**
+     * Прибавляет hits к уже существующим строкам rollup-а или создаёт недостающие.
+     *
+     * @param increments приращения по (app, uri, bucketStart)
+     */
+    void addHits(List<EndpointHitRollup> increments);
+}
@@ -0,0 +1,55 @@
+package ru.practicum.stats.server.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats.server.model.EndpointHitRollup;
+
+@RequiredArgsConstructor
+public class EndpointHitRollupUpsertImpl implements EndpointHitRollupUpsert {
+
+    private static final String POSTGRES_UPSERT_SQL = """
+            INSERT INTO endpoint_hit_rollup (app, uri, bucket_start, hits)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (app, uri, bucket_start)
+            DO UPDATE SET hits = endpoint_hit_rollup.hits + EXCLUDED.hits
+            """;
+
+    // H2 (тесты) не умеет ON CONFLICT ... DO UPDATE, зато поддерживает стандартный MERGE
+    private static final String MERGE_SQL = """
+            MERGE INTO endpoint_hit_rollup r
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(1024)), CAST(? AS TIMESTAMP), CAST(? AS BIGINT)))
+                AS v(app, uri, bucket_start, hits)
+            ON r.app = v.app AND r.uri = v.uri AND r.bucket_start = v.bucket_start
+            WHEN MATCHED THEN UPDATE SET hits = r.hits + v.hits
+            WHEN NOT MATCHED THEN INSERT (app, uri, bucket_start, hits) VALUES (v.app, v.uri, v.bucket_start, v.hits)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public void addHits(List<EndpointHitRollup> increments) {
+        if (increments.isEmpty()) return;
+
+        String sql = isPostgres() ? POSTGRES_UPSERT_SQL : MERGE_SQL;
+        jdbcTemplate.batchUpdate(sql, increments, increments.size(), (ps, r) -> {
+            ps.setString(1, r.getApp());
+            ps.setString(2, r.getUri());
+            ps.setTimestamp(3, Timestamp.valueOf(r.getBucketStart()));
+            ps.setLong(4, r.getHits());
+        });
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) c ->
+                    "PostgreSQL".equals(c.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.stats.server.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import ru.practicum.stats.server.model.EndpointHitRollupId;
+import ru.practicum.stats.server.sketch.AppUri;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+
+public interface IpSketchRepository {
+
+    /**
+     * Строит скетчи IP за час [from, to) и записывает их в уже свёрнутые строки endpoint_hit_rollup.
+     */
+    void buildSketches(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Добавляет IP в скетчи существующих строк endpoint_hit_rollup.
+     */
+    void addIps(Map<EndpointHitRollupId, List<String>> ips);
+
+    /**
+     * Сливает скетчи часов [rollStart, rollEnd) и IP сырых хитов на краях интервала [start, end].
+     *
+     * @param uris фильтр по uri; {@code null} или пустой — без фильтра
+     */
+    Map<AppUri, HyperLogLog> mergeSketches(LocalDateTime start,
+                                           LocalDateTime rollStart,
+                                           LocalDateTime rollEnd,
+                                           LocalDateTime end,
+                                           Collection<String> uris);
+}
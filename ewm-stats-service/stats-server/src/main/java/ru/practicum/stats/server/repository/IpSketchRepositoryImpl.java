@@ -0,0 +1,200 @@
+package ru.practicum.stats.server.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.stats.server.encoding.HitDictionary;
+import ru.practicum.stats.server.encoding.IpAddresses;
+import ru.practicum.stats.server.model.EndpointHitRollupId;
+import ru.practicum.stats.server.sketch.AppUri;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+
+public class IpSketchRepositoryImpl implements IpSketchRepository {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int UPDATE_BATCH_SIZE = 500;
+
+    // сортировка по (app_id, uri_id) позволяет держать в памяти только один скетч
+    private static final String HOUR_IPS_SQL = """
+            SELECT app_id, uri_id, ip
+            FROM stats_hit
+            WHERE hit_time >= ? AND hit_time < ?
+            ORDER BY app_id, uri_id
+            """;
+
+    private static final String UPDATE_SKETCH_SQL = """
+            UPDATE endpoint_hit_rollup
+            SET ip_sketch = ?
+            WHERE app = ? AND uri = ? AND bucket_start = ?
+            """;
+
+    private static final String SELECT_SKETCH_FOR_UPDATE_SQL = """
+            SELECT ip_sketch
+            FROM endpoint_hit_rollup
+            WHERE app = ? AND uri = ? AND bucket_start = ?
+            FOR UPDATE
+            """;
+
+    private static final String ROLLUP_SKETCHES_SQL = """
+            SELECT app, uri, ip_sketch
+            FROM endpoint_hit_rollup
+            WHERE bucket_start >= :rollStart AND bucket_start < :rollEnd
+            """;
+
+    private static final String EDGE_IPS_SQL = """
+            SELECT DISTINCT app_id, uri_id, ip
+            FROM stats_hit
+            WHERE ((hit_time >= :start AND hit_time < :rollStart)
+               OR (hit_time >= :rollEnd AND hit_time <= :end))
+            """;
+
+    private static final String URI_FILTER = " AND uri IN (:uris)";
+    private static final String URI_ID_FILTER = " AND uri_id IN (SELECT id FROM stats_uri WHERE uri IN (:uris))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final HitDictionary dictionary;
+
+    public IpSketchRepositoryImpl(JdbcTemplate jdbcTemplate, HitDictionary dictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionary = dictionary;
+
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    @Override
+    public void buildSketches(LocalDateTime from, LocalDateTime to) {
+        Timestamp bucket = Timestamp.valueOf(from);
+        SketchWriter writer = new SketchWriter(bucket);
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(HOUR_IPS_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, bucket);
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            return ps;
+        }, writer);
+        writer.finish();
+    }
+
+    @Override
+    public void addIps(Map<EndpointHitRollupId, List<String>> ips) {
+        ips.forEach((id, values) -> {
+            Object[] key = {id.getApp(), id.getUri(), Timestamp.valueOf(id.getBucketStart())};
+
+            byte[] stored = jdbcTemplate.query(SELECT_SKETCH_FOR_UPDATE_SQL,
+                    rs -> rs.next() ? rs.getBytes(1) : null, key);
+            HyperLogLog sketch = HyperLogLog.fromBytes(stored);
+            values.forEach(ip -> sketch.add(IpAddresses.normalize(ip)));
+
+            jdbcTemplate.update(UPDATE_SKETCH_SQL, sketch.toBytes(), key[0], key[1], key[2]);
+        });
+    }
+
+    @Override
+    public Map<AppUri, HyperLogLog> mergeSketches(LocalDateTime start,
+                                                  LocalDateTime rollStart,
+                                                  LocalDateTime rollEnd,
+                                                  LocalDateTime end,
+                                                  Collection<String> uris) {
+        boolean hasUris = uris != null && !uris.isEmpty();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("rollStart", Timestamp.valueOf(rollStart))
+                .addValue("rollEnd", Timestamp.valueOf(rollEnd))
+                .addValue("end", Timestamp.valueOf(end));
+        if (hasUris) {
+            params.addValue("uris", uris);
+        }
+
+        Map<AppUri, HyperLogLog> result = new HashMap<>();
+
+        namedJdbcTemplate.query(hasUris ? ROLLUP_SKETCHES_SQL + URI_FILTER : ROLLUP_SKETCHES_SQL, params,
+                (RowCallbackHandler) rs -> result
+                        .computeIfAbsent(key(rs), k -> new HyperLogLog())
+                        .merge(HyperLogLog.fromBytes(rs.getBytes("ip_sketch"))));
+
+        namedJdbcTemplate.query(hasUris ? EDGE_IPS_SQL + URI_ID_FILTER : EDGE_IPS_SQL, params,
+                (RowCallbackHandler) rs -> result
+                        .computeIfAbsent(hitKey(rs), k -> new HyperLogLog())
+                        .add(ip(rs)));
+
+        return result;
+    }
+
+    private static AppUri key(ResultSet rs) throws SQLException {
+        return new AppUri(rs.getString("app"), rs.getString("uri"));
+    }
+
+    // строки словарей берутся из кэша HitDictionary, без join по каждому хиту
+    private AppUri hitKey(ResultSet rs) throws SQLException {
+        return new AppUri(dictionary.app(rs.getInt("app_id")), dictionary.uri(rs.getInt("uri_id")));
+    }
+
+    // скетчи считаются по канонической строке IP, как и для поздних хитов в addIps
+    private static String ip(ResultSet rs) throws SQLException {
+        return IpAddresses.toString(rs.getBytes("ip"));
+    }
+
+    // собирает скетч текущего (app, uri) и пачками пишет готовые скетчи в агрегаты
+    private class SketchWriter implements RowCallbackHandler {
+
+        private final Timestamp bucket;
+        private final List<Object[]> updates = new ArrayList<>(UPDATE_BATCH_SIZE);
+
+        private int currentAppId;
+        private int currentUriId;
+        private AppUri current;
+        private HyperLogLog sketch;
+
+        SketchWriter(Timestamp bucket) {
+            this.bucket = bucket;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            int appId = rs.getInt("app_id");
+            int uriId = rs.getInt("uri_id");
+            if (current == null || appId != currentAppId || uriId != currentUriId) {
+                complete();
+                currentAppId = appId;
+                currentUriId = uriId;
+                current = hitKey(rs);
+                sketch = new HyperLogLog();
+            }
+            sketch.add(ip(rs));
+        }
+
+        void finish() {
+            complete();
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SKETCH_SQL, updates);
+                updates.clear();
+            }
+        }
+
+        private void complete() {
+            if (current == null) return;
+
+            updates.add(new Object[]{sketch.toBytes(), current.app(), current.uri(), bucket});
+            if (updates.size() == UPDATE_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(UPDATE_SKETCH_SQL, updates);
+                updates.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.stats.server.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Число хитов (app, uri) за минуту [minute, minute + 1m) и время первого и последнего из них.
+ */
+public record MinuteCount(String app,
+                          String uri,
+                          LocalDateTime minute,
+                          long hits,
+                          LocalDateTime firstHit,
+                          LocalDateTime lastHit) {
+}
@@ -0,0 +1,12 @@
+package ru.practicum.stats.server.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MinuteCountRepository {
+
+    /**
+     * Поминутные счётчики сырых хитов с hit_time в [from, to).
+     */
+    List<MinuteCount> findMinuteCounts(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,45 @@
+package ru.practicum.stats.server.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class MinuteCountRepositoryImpl implements MinuteCountRepository {
+
+    // группировка по id словарей, строки подставляются к уже сгруппированным строкам
+    private static final String MINUTE_COUNTS_SQL = """
+            SELECT a.name AS app, u.uri AS uri, t.bucket_start, t.hits, t.first_hit, t.last_hit
+            FROM (
+                SELECT app_id, uri_id, DATE_TRUNC('minute', hit_time) AS bucket_start,
+                       COUNT(*) AS hits, MIN(hit_time) AS first_hit, MAX(hit_time) AS last_hit
+                FROM stats_hit
+                WHERE hit_time >= :from AND hit_time < :to
+                GROUP BY app_id, uri_id, DATE_TRUNC('minute', hit_time)
+            ) t
+            JOIN stats_app a ON a.id = t.app_id
+            JOIN stats_uri u ON u.id = t.uri_id
+            """;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public MinuteCountRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public List<MinuteCount> findMinuteCounts(LocalDateTime from, LocalDateTime to) {
+        return namedJdbcTemplate.query(MINUTE_COUNTS_SQL,
+                Map.of("from", Timestamp.valueOf(from), "to", Timestamp.valueOf(to)),
+                (rs, rowNum) -> new MinuteCount(
+                        rs.getString("app"),
+                        rs.getString("uri"),
+                        rs.getTimestamp("bucket_start").toLocalDateTime(),
+                        rs.getLong("hits"),
+                        rs.getTimestamp("first_hit").toLocalDateTime(),
+                        rs.getTimestamp("last_hit").toLocalDateTime()));
+    }
+}
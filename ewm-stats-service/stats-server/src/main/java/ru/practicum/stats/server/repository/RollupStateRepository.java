@@ -0,0 +1,23 @@
+package ru.practicum.stats.server.repository;
+
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.stats.server.model.RollupState;
+
+public interface RollupStateRepository extends JpaRepository<RollupState, String> {
+
+    // блокировка строки состояния не даёт двум экземплярам сервера свернуть один и тот же час дважды
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from RollupState s where s.name = :name")
+    Optional<RollupState> findForUpdate(@Param("name") String name);
+
+    // FOR SHARE: сохранение хитов ждёт, пока компактор закоммитит свёрнутый час и новый watermark
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select s from RollupState s where s.name = :name")
+    Optional<RollupState> findForShare(@Param("name") String name);
+}
@@ -0,0 +1,120 @@
+package ru.practicum.stats.server.service;
+
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.EndpointHitRepository;
+
+/**
+ * Переносит хиты из прежней таблицы endpoint_hit (строковые app/uri/ip) в stats_hit и удаляет её.
+ * Каждая пачка удаляется из endpoint_hit и вставляется в stats_hit в одной транзакции, поэтому
+ * прерванный перенос продолжается со следующего запуска. Агрегаты endpoint_hit_rollup не трогаются:
+ * хиты до watermark в них уже учтены, остальные свернёт компактор.
+ * <p>
+ * Перенос выполняется при старте контекста до запуска веб-сервера и планировщика: пока хиты лежат в обеих
+ * таблицах, компактор не сдвигает watermark мимо ещё не перенесённых хитов, а /stats не отвечает неполными
+ * данными. HitCounters и прочие слушатели ApplicationReadyEvent видят уже перенесённые хиты.
+ */
+@Slf4j
+@Component
+public class LegacyHitMigration implements SmartLifecycle {
+
+    // раньше WebServerStartStopLifecycle (SMART_LIFECYCLE_PHASE - 1024)
+    private static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    static final String LEGACY_TABLE = "endpoint_hit";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final EndpointHitRepository hitRepository;
+
+    private final boolean enabled;
+    private final int batchSize;
+
+    private volatile boolean running;
+
+    public LegacyHitMigration(JdbcTemplate jdbc,
+                              PlatformTransactionManager transactionManager,
+                              EndpointHitRepository hitRepository,
+                              @Value("${stats.legacy-migration.enabled:true}") boolean enabled,
+                              @Value("${stats.legacy-migration.batch-size:10000}") int batchSize) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.hitRepository = hitRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            // без завершённого переноса сервис не стартует: иначе компактор свернул бы часы без части хитов.
+            // Перенесённые пачки уже закоммичены, следующий запуск продолжит с оставшихся
+            try {
+                migrate();
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Legacy hit migration failed: " + e.getMessage(), e);
+            }
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public void migrate() {
+        if (jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, LEGACY_TABLE) != Boolean.TRUE) {
+            return;
+        }
+
+        long moved = 0;
+        int batch;
+        while ((batch = moveBatch()) > 0) {
+            moved += batch;
+            log.info("Legacy hits: moved {} to stats_hit", moved);
+        }
+        jdbc.execute("DROP TABLE " + LEGACY_TABLE);
+        log.info("Legacy hits: migration finished, {} dropped", LEGACY_TABLE);
+    }
+
+    private int moveBatch() {
+        Integer moved = tx.execute(status -> {
+            List<EndpointHit> hits = jdbc.query("""
+                            DELETE FROM endpoint_hit
+                            WHERE id IN (SELECT id FROM endpoint_hit ORDER BY id LIMIT ?)
+                            RETURNING app, uri, ip, hit_time
+                            """,
+                    (rs, rowNum) -> {
+                        EndpointHit hit = new EndpointHit();
+                        hit.setApp(rs.getString("app"));
+                        hit.setUri(rs.getString("uri"));
+                        hit.setIp(rs.getString("ip"));
+                        hit.setHitTime(rs.getTimestamp("hit_time").toLocalDateTime());
+                        return hit;
+                    },
+                    batchSize);
+            return hitRepository.insertAll(hits);
+        });
+        return moved == null ? 0 : moved;
+    }
+}
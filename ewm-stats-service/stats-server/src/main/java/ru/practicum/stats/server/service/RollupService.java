@@ -0,0 +1,192 @@
+package ru.practicum.stats.server.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.model.EndpointHitRollup;
+import ru.practicum.stats.server.model.EndpointHitRollupId;
+import ru.practicum.stats.server.model.RollupState;
+import ru.practicum.stats.server.repository.EndpointHitRepository;
+import ru.practicum.stats.server.repository.EndpointHitRollupRepository;
+import ru.practicum.stats.server.repository.RollupStateRepository;
+
+/**
+ * Поддерживает почасовые агрегаты endpoint_hit_rollup (число хитов и скетч уникальных IP).
+ * Фоновый компактор сворачивает закрытые часы и двигает watermark; хиты, пришедшие
+ * с hit_time раньше watermark, сразу добавляются в соответствующий агрегат при сохранении.
+ */
+@Slf4j
+@Service
+public class RollupService {
+
+    static final String HOURLY = "hourly";
+
+    // в той же таблице состояния: сырые хиты раньше этой границы удалены по retention
+    static final String RAW_RETAINED_FROM = "raw-retained-from";
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final EndpointHitRepository hitRepository;
+    private final EndpointHitRollupRepository rollupRepository;
+    private final RollupStateRepository stateRepository;
+    private final TransactionTemplate tx;
+
+    private final boolean enabled;
+    private final Duration grace;
+    private final int maxHoursPerRun;
+
+    public RollupService(EndpointHitRepository hitRepository,
+                         EndpointHitRollupRepository rollupRepository,
+                         RollupStateRepository stateRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${stats.rollup.enabled:true}") boolean enabled,
+                         @Value("${stats.rollup.grace:PT5M}") Duration grace,
+                         @Value("${stats.rollup.max-hours-per-run:168}") int maxHoursPerRun) {
+        this.hitRepository = hitRepository;
+        this.rollupRepository = rollupRepository;
+        this.stateRepository = stateRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.grace = grace;
+        this.maxHoursPerRun = maxHoursPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.rollup.compact-interval-ms:60000}",
+            initialDelayString = "${stats.rollup.compact-interval-ms:60000}")
+    public void scheduledCompact() {
+        if (!enabled) return;
+
+        try {
+            int hours = compact(LocalDateTime.now().minus(grace));
+            if (hours > 0) {
+                log.info("Rollup: compacted {} hour(s), watermark={}", hours, watermark());
+            }
+        } catch (Exception e) {
+            log.warn("Rollup compaction failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Сворачивает все закрытые часы раньше upTo (не больше max-hours-per-run за вызов).
+     *
+     * @return количество свёрнутых часов
+     */
+    public int compact(LocalDateTime upTo) {
+        LocalDateTime target = upTo.truncatedTo(ChronoUnit.HOURS);
+        int done = 0;
+        while (done < maxHoursPerRun && Boolean.TRUE.equals(tx.execute(status -> compactNextHour(target)))) {
+            done++;
+        }
+        return done;
+    }
+
+    /**
+     * @return граница, до которой хиты уже учтены в агрегатах, или {@code null}, если компактор ещё не запускался
+     */
+    public LocalDateTime watermark() {
+        return stateRepository.findById(HOURLY)
+                .map(RollupState::getWatermark)
+                .orElse(null);
+    }
+
+    /**
+     * @return граница, раньше которой сырые хиты удалены (HitPartitionMaintainer), или {@code null}, если ничего не удалялось
+     */
+    public LocalDateTime rawRetainedFrom() {
+        return stateRepository.findById(RAW_RETAINED_FROM)
+                .map(RollupState::getWatermark)
+                .orElse(null);
+    }
+
+    /**
+     * Отмечает, что сырые хиты раньше before удалены. Вызывается в транзакции удаления.
+     */
+    public void markRawHitsDroppedBefore(LocalDateTime before) {
+        RollupState state = stateRepository.findForUpdate(RAW_RETAINED_FROM).orElseGet(() -> {
+            RollupState s = new RollupState();
+            s.setName(RAW_RETAINED_FROM);
+            return s;
+        });
+        if (state.getWatermark() == null || state.getWatermark().isBefore(before)) {
+            state.setWatermark(before);
+            stateRepository.save(state);
+        }
+    }
+
+    /**
+     * Досчитывает в агрегаты хиты, которые пришли уже после того, как их час был свёрнут.
+     * Вызывается в транзакции сохранения хитов, после их вставки.
+     * <p>
+     * Watermark читается под разделяемой блокировкой строки состояния. Если компактор сейчас сворачивает
+     * час этих хитов, он их не видит (транзакция не закоммичена); блокировка дожидается его коммита,
+     * и хиты попадают в агрегат здесь по уже сдвинутому watermark.
+     */
+    public void recordLateHits(List<EndpointHit> hits) {
+        LocalDateTime watermark = stateRepository.findForShare(HOURLY)
+                .map(RollupState::getWatermark)
+                .orElse(null);
+        if (watermark == null) return;
+
+        Map<EndpointHitRollupId, List<String>> late = hits.stream()
+                .filter(h -> h.getHitTime().isBefore(watermark))
+                .collect(Collectors.groupingBy(
+                        h -> new EndpointHitRollupId(h.getApp(), h.getUri(), h.getHitTime().truncatedTo(ChronoUnit.HOURS)),
+                        Collectors.mapping(EndpointHit::getIp, Collectors.toList())));
+        if (late.isEmpty()) return;
+
+        rollupRepository.addHits(late.entrySet().stream()
+                .map(e -> {
+                    EndpointHitRollup r = new EndpointHitRollup();
+                    r.setApp(e.getKey().getApp());
+                    r.setUri(e.getKey().getUri());
+                    r.setBucketStart(e.getKey().getBucketStart());
+                    r.setHits((long) e.getValue().size());
+                    return r;
+                })
+                .toList());
+        rollupRepository.addIps(late);
+    }
+
+    private boolean compactNextHour(LocalDateTime target) {
+        RollupState state = stateRepository.findForUpdate(HOURLY).orElseGet(() -> {
+            RollupState s = new RollupState();
+            s.setName(HOURLY);
+            return s;
+        });
+        LocalDateTime watermark = state.getWatermark();
+
+        // пустые часы не сворачиваем, а перескакиваем к первому часу с хитами
+        LocalDateTime first = hitRepository.findFirstHitTimeFrom(watermark == null ? EPOCH : watermark);
+        LocalDateTime bucket = first == null ? target : latest(watermark, first.truncatedTo(ChronoUnit.HOURS));
+
+        if (!bucket.isBefore(target)) {
+            if (watermark == null || watermark.isBefore(target)) {
+                state.setWatermark(target);
+                stateRepository.save(state);
+            }
+            return false;
+        }
+
+        rollupRepository.rollupRange(bucket, bucket.plusHours(1));
+        rollupRepository.buildSketches(bucket, bucket.plusHours(1));
+        state.setWatermark(bucket.plusHours(1));
+        stateRepository.save(state);
+        return true;
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        return a.isAfter(b) ? a : b;
+    }
+}
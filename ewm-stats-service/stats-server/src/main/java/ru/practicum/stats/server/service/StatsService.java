@@ -1,6 +1,7 @@
 package ru.practicum.stats.server.service;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 import ru.practicum.stats.dto.EndpointHitDto;
@@ -9,8 +10,28 @@ import ru.practicum.stats.dto.ViewStatsDto;
 public interface StatsService {
     void saveHit(EndpointHitDto endpointHitDto);
 
+    int saveHits(List<EndpointHitDto> endpointHitDtos);
+
+    /**
+     * Сохраняет поток хитов кусками по chunkSize в одной транзакции: ошибка в любом месте потока
+     * откатывает весь запрос, поэтому клиент может повторить его целиком без дублей.
+     *
+     * @return число сохранённых хитов
+     */
+    int saveHits(Iterator<EndpointHitDto> endpointHitDtos, int chunkSize);
+
     List<ViewStatsDto> getStats(LocalDateTime start,
                                 LocalDateTime end,
                                 List<String> uris,
                                 boolean unique);
+
+    /**
+     * @param approximate для unique=true считать уникальных посетителей по HyperLogLog-скетчам
+     *                    свёрнутых часов вместо COUNT(DISTINCT ip) по сырым хитам
+     */
+    List<ViewStatsDto> getStats(LocalDateTime start,
+                                LocalDateTime end,
+                                List<String> uris,
+                                boolean unique,
+                                boolean approximate);
 }
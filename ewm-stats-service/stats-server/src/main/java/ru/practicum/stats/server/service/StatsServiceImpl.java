@@ -1,7 +1,14 @@
 package ru.practicum.stats.server.service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -10,35 +17,133 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.counter.HitCounters;
 import ru.practicum.stats.server.mapper.EndpointHitMapper;
+import ru.practicum.stats.server.model.EndpointHit;
 import ru.practicum.stats.server.repository.EndpointHitRepository;
+import ru.practicum.stats.server.repository.EndpointHitRollupRepository;
 import ru.practicum.stats.server.repository.ViewStatsProjection;
+import ru.practicum.stats.server.sketch.AppUri;
 
 @Service
 @RequiredArgsConstructor
 public class StatsServiceImpl implements StatsService {
 
     private final EndpointHitRepository endpointHitRepository;
+    private final EndpointHitRollupRepository rollupRepository;
+    private final RollupService rollupService;
+    private final HitCounters hitCounters;
 
     @Override
     @Transactional
     public void saveHit(EndpointHitDto endpointHitDto) {
-        endpointHitRepository.save(EndpointHitMapper.toEntity(endpointHitDto));
+        EndpointHit saved = endpointHitRepository.save(EndpointHitMapper.toEntity(endpointHitDto));
+        rollupService.recordLateHits(List.of(saved));
+        hitCounters.record(List.of(saved));
+    }
+
+    @Override
+    @Transactional
+    public int saveHits(List<EndpointHitDto> endpointHitDtos) {
+        if (endpointHitDtos == null || endpointHitDtos.isEmpty()) return 0;
+
+        List<EndpointHit> hits = endpointHitDtos.stream()
+                .map(EndpointHitMapper::toEntity)
+                .toList();
+        int saved = endpointHitRepository.insertAll(hits);
+        rollupService.recordLateHits(hits);
+        hitCounters.record(hits);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public int saveHits(Iterator<EndpointHitDto> endpointHitDtos, int chunkSize) {
+        int saved = 0;
+        List<EndpointHitDto> chunk = new ArrayList<>(chunkSize);
+        while (endpointHitDtos.hasNext()) {
+            chunk.add(endpointHitDtos.next());
+            if (chunk.size() == chunkSize) {
+                saved += saveHits(chunk);
+                chunk.clear();
+            }
+        }
+        return saved + saveHits(chunk);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        return getStats(start, end, uris, unique, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ViewStatsDto> getStats(LocalDateTime start,
+                                       LocalDateTime end,
+                                       List<String> uris,
+                                       boolean unique,
+                                       boolean approximate) {
 
         if (start.isAfter(end)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "start должен быть до end");
         }
 
+        if (!unique) {
+            Optional<LocalDateTime> split = hitCounters.coveredFromHour()
+                    .filter(from -> start.isBefore(from) && !end.isBefore(from));
+            if (split.isEmpty()) {
+                Optional<List<ViewStatsDto>> fromMemory = hitCounters.getStats(start, end, uris);
+                if (fromMemory.isPresent()) {
+                    return fromMemory.get();
+                }
+            } else {
+                // интервал начинается раньше окна счётчиков: хвост из памяти, начало — из базы по агрегатам.
+                // Запросы к базе включают end, поэтому начало заканчивается за микросекунду до границы
+                Optional<List<ViewStatsDto>> tail = hitCounters.getStats(split.get(), end, uris);
+                if (tail.isPresent()) {
+                    return sum(queryStats(start, split.get().minus(1, ChronoUnit.MICROS), uris, false, false),
+                            tail.get());
+                }
+            }
+        }
+
+        return queryStats(start, end, uris, unique, approximate);
+    }
+
+    private List<ViewStatsDto> queryStats(LocalDateTime start,
+                                          LocalDateTime end,
+                                          List<String> uris,
+                                          boolean unique,
+                                          boolean approximate) {
         boolean hasUris = uris != null && !uris.isEmpty();
 
         List<ViewStatsProjection> rows;
 
-        if (unique) {
+        // точный COUNT(DISTINCT ip) по агрегатам не собрать, а скетчи сливаются по любому набору часов.
+        // Если сырые хиты начала интервала удалены по retention, точный подсчёт занизил бы результат:
+        // такой запрос тоже считается по скетчам
+        boolean sketches = unique && (approximate || rawHitsDropped(start));
+        LocalDateTime watermark = unique && !sketches ? null : rollupService.watermark();
+        LocalDateTime rollStart = ceilHour(start);
+        LocalDateTime rollEnd = watermark == null ? null : earliest(end.truncatedTo(ChronoUnit.HOURS), watermark);
+
+        if (sketches && rollEnd != null && rollStart.isBefore(rollEnd)) {
+            return rollupRepository.mergeSketches(start, rollStart, rollEnd, end, hasUris ? uris : null)
+                    .entrySet().stream()
+                    .map(e -> ViewStatsDto.builder()
+                            .app(e.getKey().app())
+                            .uri(e.getKey().uri())
+                            .hits(e.getValue().estimate())
+                            .build())
+                    .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                    .toList();
+        } else if (rollEnd != null && rollStart.isBefore(rollEnd)) {
+            // полные свёрнутые часы читаем из агрегатов, сырые хиты — только по краям интервала
+            rows = hasUris
+                    ? endpointHitRepository.findRolledUpStatsByUris(start, rollStart, rollEnd, end, uris)
+                    : endpointHitRepository.findRolledUpStats(start, rollStart, rollEnd, end);
+        } else if (unique) {
             rows = hasUris
                     ? endpointHitRepository.findUniqueStatsByUris(start, end, uris)
                     : endpointHitRepository.findUniqueStats(start, end);
@@ -57,4 +162,33 @@ public class StatsServiceImpl implements StatsService {
                 )
                 .toList();
     }
-}
\ No newline at end of file
+
+    private static List<ViewStatsDto> sum(List<ViewStatsDto> a, List<ViewStatsDto> b) {
+        Map<AppUri, Long> hits = new HashMap<>();
+        for (ViewStatsDto dto : a) hits.merge(new AppUri(dto.getApp(), dto.getUri()), dto.getHits(), Long::sum);
+        for (ViewStatsDto dto : b) hits.merge(new AppUri(dto.getApp(), dto.getUri()), dto.getHits(), Long::sum);
+
+        return hits.entrySet().stream()
+                .map(e -> ViewStatsDto.builder()
+                        .app(e.getKey().app())
+                        .uri(e.getKey().uri())
+                        .hits(e.getValue())
+                        .build())
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .toList();
+    }
+
+    private boolean rawHitsDropped(LocalDateTime start) {
+        LocalDateTime retainedFrom = rollupService.rawRetainedFrom();
+        return retainedFrom != null && start.isBefore(retainedFrom);
+    }
+
+    private static LocalDateTime ceilHour(LocalDateTime t) {
+        LocalDateTime floor = t.truncatedTo(ChronoUnit.HOURS);
+        return floor.equals(t) ? t : floor.plusHours(1);
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
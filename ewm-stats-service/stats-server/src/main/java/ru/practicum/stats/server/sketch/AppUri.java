@@ -0,0 +1,7 @@
+package ru.practicum.stats.server.sketch;
+
+/**
+ * Ключ, по которому сливаются скетчи уникальных посетителей.
+ */
+public record AppUri(String app, String uri) {
+}
@@ -0,0 +1,133 @@
+package ru.practicum.stats.server.sketch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog для оценки числа уникальных IP.
+ * Занимает фиксированные 4 КБ (2^12 регистров) независимо от числа посетителей,
+ * относительная стандартная ошибка — 1.04 / sqrt(2^12) ≈ 1.6%. Скетчи сливаются
+ * поэлементным максимумом, поэтому часовые скетчи можно объединять в любой интервал.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 12;
+
+    private static final int M = 1 << PRECISION;
+    private static final int MAX_RANK = Long.SIZE - PRECISION + 1;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+    private static final byte FORMAT_DENSE = 1;
+    private static final byte FORMAT_SPARSE = 2;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[M];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * @return относительная стандартная ошибка оценки
+     */
+    public static double relativeError() {
+        return 1.04 / Math.sqrt(M);
+    }
+
+    public void add(String value) {
+        long hash = hash64(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION) + 1, MAX_RANK);
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < M; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) zeros++;
+        }
+
+        double estimate = ALPHA * M * M / sum;
+        // на малых мощностях линейный подсчёт по пустым регистрам точнее
+        if (estimate <= 2.5 * M && zeros > 0) {
+            estimate = M * Math.log((double) M / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Сериализует скетч: пока заполнено мало регистров — парами (индекс, значение), иначе целиком.
+     */
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte r : registers) {
+            if (r != 0) nonZero++;
+        }
+
+        if (nonZero * 3 < M) {
+            ByteBuffer buf = ByteBuffer.allocate(1 + nonZero * 3);
+            buf.put(FORMAT_SPARSE);
+            for (int i = 0; i < M; i++) {
+                if (registers[i] != 0) {
+                    buf.putShort((short) i);
+                    buf.put(registers[i]);
+                }
+            }
+            return buf.array();
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(1 + M);
+        buf.put(FORMAT_DENSE);
+        buf.put(registers);
+        return buf.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return new HyperLogLog();
+
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        byte format = buf.get();
+        byte[] registers = new byte[M];
+        if (format == FORMAT_DENSE) {
+            buf.get(registers);
+        } else if (format == FORMAT_SPARSE) {
+            while (buf.remaining() >= 3) {
+                int index = buf.getShort() & 0xFFFF;
+                registers[index] = buf.get();
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown HyperLogLog format: " + format);
+        }
+        return new HyperLogLog(registers);
+    }
+
+    // FNV-1a с финализатором MurmurHash3: дёшево и достаточно равномерно для адресов
+    private static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.stats.server.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.common.threads.VirtualThreadPinningMonitor;
+
+import java.time.Duration;
+
+/**
+ * Диагностика виртуальных потоков stats-server: приём хитов и /stats блокируются на JDBC,
+ * поэтому закрепление внутри synchronized (Hibernate, драйвер, HitDictionary) прямо снижает
+ * пропускную способность — таймер stats.threads.virtual.pinned и запись в лог.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${stats.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(meterRegistry, "stats", threshold);
+    }
+}
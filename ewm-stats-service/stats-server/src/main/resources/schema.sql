@@ -1,18 +1,68 @@
-CREATE TABLE IF NOT EXISTS endpoint_hit
+-- Словари для stats_hit: строки app и uri хранятся один раз, в хитах — их id (см. HitDictionary)
+CREATE TABLE IF NOT EXISTS stats_app
 (
-    id       BIGSERIAL PRIMARY KEY,
-    app      VARCHAR(255)                NOT NULL,
-    uri      VARCHAR(1024)               NOT NULL,
-    ip       VARCHAR(64)                 NOT NULL,
-    hit_time TIMESTAMP WITHOUT TIME ZONE NOT NULL
+    id   SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
 );
 
--- Индексы для быстрых запросов статистики по периоду и URI
-CREATE INDEX IF NOT EXISTS idx_endpoint_hit_time
-    ON endpoint_hit (hit_time);
+CREATE TABLE IF NOT EXISTS stats_uri
+(
+    id  SERIAL PRIMARY KEY,
+    uri VARCHAR(1024) NOT NULL UNIQUE
+);
+
+-- Сырые хиты, партиции по hit_time (день или месяц, stats.partitions.interval).
+-- Партиции и удаление по retention ведёт HitPartitionMaintainer.
+-- ip — 4 байта для IPv4, 16 для IPv6 (см. IpAddresses).
+-- Хиты прежней таблицы endpoint_hit (строковые app/uri/ip) переносит сюда LegacyHitMigration.
+CREATE TABLE IF NOT EXISTS stats_hit
+(
+    id       BIGSERIAL,
+    app_id   INTEGER                     NOT NULL,
+    uri_id   INTEGER                     NOT NULL,
+    ip       BYTEA                       NOT NULL,
+    hit_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (id, hit_time)
+) PARTITION BY RANGE (hit_time);
+
+-- Хиты вне созданных партиций; при создании партиции её диапазон переносится отсюда
+CREATE TABLE IF NOT EXISTS stats_hit_default PARTITION OF stats_hit DEFAULT;
+
+-- Индексы для быстрых запросов статистики по периоду и URI; создаются в каждой партиции,
+-- поэтому их размер (и стоимость вставки) ограничен одной партицией, а не всей историей
+CREATE INDEX IF NOT EXISTS idx_stats_hit_time
+    ON stats_hit (hit_time);
+
+CREATE INDEX IF NOT EXISTS idx_stats_hit_uri_time
+    ON stats_hit (uri_id, hit_time);
+
+CREATE INDEX IF NOT EXISTS idx_stats_hit_app_uri_time
+    ON stats_hit (app_id, uri_id, hit_time);
 
-CREATE INDEX IF NOT EXISTS idx_endpoint_hit_uri_time
-    ON endpoint_hit (uri, hit_time);
+-- Почасовые агрегаты хитов; заполняются компактором (RollupService)
+CREATE TABLE IF NOT EXISTS endpoint_hit_rollup
+(
+    app          VARCHAR(255)                NOT NULL,
+    uri          VARCHAR(1024)               NOT NULL,
+    bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits         BIGINT                      NOT NULL,
+    ip_sketch    BYTEA,
+    PRIMARY KEY (app, uri, bucket_start)
+);
+
+-- HyperLogLog-скетч IP за час (см. HyperLogLog); для агрегатов, созданных до появления колонки
+ALTER TABLE endpoint_hit_rollup ADD COLUMN IF NOT EXISTS ip_sketch BYTEA;
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hit_rollup_bucket
+    ON endpoint_hit_rollup (bucket_start);
+
+CREATE TABLE IF NOT EXISTS stats_rollup_state
+(
+    name      VARCHAR(64) PRIMARY KEY,
+    watermark TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
 
-CREATE INDEX IF NOT EXISTS idx_endpoint_hit_app_uri_time
-    ON endpoint_hit (app, uri, hit_time);
+-- строка существует до первой компакции: сохранение хитов всегда берёт на ней блокировку (RollupService)
+INSERT INTO stats_rollup_state (name, watermark)
+VALUES ('hourly', TIMESTAMP '1970-01-01 00:00:00')
+ON CONFLICT DO NOTHING;
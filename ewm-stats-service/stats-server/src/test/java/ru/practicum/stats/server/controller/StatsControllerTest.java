@@ -75,6 +75,83 @@ class StatsControllerTest {
         assertEquals(LocalDateTime.of(2024, 1, 15, 10, 0), hit.getHitTime());
     }
 
+    @Test
+    void hitBatch_shouldPersistAllRows() throws Exception {
+        List<EndpointHitDto> dtos = List.of(
+                new EndpointHitDto("ewm-main-service", "/events/1", "192.168.1.1", DATE_TIME_1),
+                new EndpointHitDto("ewm-main-service", "/events/2", "192.168.1.2", DATE_TIME_1),
+                new EndpointHitDto("ewm-main-service", "/events", "192.168.1.3", DATE_TIME_1)
+        );
+
+        mockMvc.perform(post("/hit/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dtos)))
+                .andExpect(status().isCreated());
+
+        assertEquals(3, endpointHitRepository.count());
+    }
+
+    @Test
+    void hitBatch_shouldAcceptNdjsonStream() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            body.append(objectMapper.writeValueAsString(
+                    new EndpointHitDto("ewm-main-service", "/events/" + (i % 7), "10.0.0." + (i % 250), DATE_TIME_1)));
+            body.append('\n');
+        }
+
+        mockMvc.perform(post("/hit/batch")
+                        .contentType("application/x-ndjson")
+                        .content(body.toString()))
+                .andExpect(status().isCreated());
+
+        assertEquals(2500, endpointHitRepository.count());
+    }
+
+    @Test
+    void hit_withInvalidBody_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/hit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new EndpointHitDto("ewm-main-service", "/events/1", "192.168.1.1", "15.01.2024"))))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/hit/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new EndpointHitDto("ewm-main-service", "/events/1", "192.168.1.1", DATE_TIME_1),
+                                new EndpointHitDto("ewm-main-service", "", "192.168.1.1", DATE_TIME_1)))))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, endpointHitRepository.count());
+    }
+
+    @Test
+    void hitBatch_ndjsonWithInvalidLineInLaterChunk_shouldPersistNothing() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1500; i++) {
+            body.append(objectMapper.writeValueAsString(
+                    new EndpointHitDto("ewm-main-service", "/events/1", "10.0.0.1", DATE_TIME_1)));
+            body.append('\n');
+        }
+        body.append(objectMapper.writeValueAsString(
+                new EndpointHitDto("ewm-main-service", "/events/1", null, DATE_TIME_1)));
+        body.append('\n');
+
+        mockMvc.perform(post("/hit/batch")
+                        .contentType("application/x-ndjson")
+                        .content(body.toString()))
+                .andExpect(status().isBadRequest());
+
+        // первый кусок уже был вставлен, но откатывается вместе с запросом: повтор не создаст дублей
+        assertEquals(0, endpointHitRepository.count());
+
+        mockMvc.perform(post("/hit/batch")
+                        .contentType("application/x-ndjson")
+                        .content("{\"app\": \"ewm-main-service\", \"uri\": \n"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getStats_shouldAggregateHits_andSupportUnique_andUrisFilter() throws Exception {
         // /events/1 -> 3 hits (2 unique IPs)
@@ -0,0 +1,116 @@
+package ru.practicum.stats.server.counter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.EndpointHitRepository;
+import ru.practicum.stats.server.service.StatsService;
+
+@SpringBootTest(properties = "stats.counters.mode=MEMORY")
+@ActiveProfiles("test")
+class HitCountersTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private HitCounters hitCounters;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private EndpointHitRepository hitRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // полчаса назад, чтобы минуты были закрыты и попадали в окно
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        hitRepository.deleteAll();
+        base = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(30);
+
+        saveEntity("/counters/1", base.plusSeconds(10));
+        saveEntity("/counters/1", base.plusSeconds(50));
+        saveEntity("/counters/1", base.plusSeconds(65));
+        saveEntity("/counters/2", base.plusSeconds(90));
+        hitCounters.rebuild(LocalDateTime.now());
+    }
+
+    @Test
+    void getStats_shouldAnswerFromMemory_afterRebuild() {
+        assertEquals(Map.of("/counters/1", 3L, "/counters/2", 1L),
+                hits(hitCounters.getStats(base, base.plusMinutes(5), null).orElseThrow()));
+
+        // начало и конец в одной минуте, все её хиты внутри интервала
+        assertEquals(Map.of("/counters/1", 1L, "/counters/2", 1L),
+                hits(hitCounters.getStats(base.plusSeconds(60), base.plusSeconds(100), null).orElseThrow()));
+
+        assertEquals(Map.of("/counters/2", 1L),
+                hits(hitCounters.getStats(base, base.plusMinutes(5), List.of("/counters/2")).orElseThrow()));
+    }
+
+    @Test
+    void getStats_withBoundaryInsideBusyMinute_shouldFallBackToDb() {
+        assertTrue(hitCounters.getStats(base.plusSeconds(30), base.plusMinutes(5), null).isEmpty());
+        assertTrue(hitCounters.getStats(base.minusDays(2), base.plusMinutes(5), null).isEmpty());
+
+        assertEquals(Map.of("/counters/1", 2L, "/counters/2", 1L),
+                hits(statsService.getStats(base.plusSeconds(30), base.plusMinutes(5), null, false)));
+    }
+
+    @Test
+    void getStats_startingBeforeWindow_shouldTakeOnlyTheHeadFromDb() {
+        saveEntity("/counters/1", base.minusDays(3));
+        double memoryReads = meterRegistry.counter("stats.counters.reads", "source", "memory").count();
+
+        assertEquals(Map.of("/counters/1", 4L, "/counters/2", 1L),
+                hits(statsService.getStats(base.minusDays(7), base.plusMinutes(5), null, false)));
+        assertEquals(memoryReads + 1, meterRegistry.counter("stats.counters.reads", "source", "memory").count());
+    }
+
+    @Test
+    void saveHits_shouldBeCountedAfterCommit() {
+        statsService.saveHits(List.of(
+                new EndpointHitDto("ewm-main-service", "/counters/2", "10.0.0.1", base.plusMinutes(3).format(FORMATTER)),
+                new EndpointHitDto("ewm-main-service", "/counters/3", "10.0.0.1", base.plusMinutes(3).format(FORMATTER))));
+
+        Map<String, Long> expected = Map.of("/counters/1", 3L, "/counters/2", 2L, "/counters/3", 1L);
+        assertEquals(expected, hits(hitCounters.getStats(base, base.plusMinutes(5), null).orElseThrow()));
+
+        // после сверки с базой счётчики те же
+        hitCounters.reconcile(LocalDateTime.now());
+        assertEquals(expected, hits(statsService.getStats(base, base.plusMinutes(5), null, false)));
+    }
+
+    private Map<String, Long> hits(List<ViewStatsDto> stats) {
+        return stats.stream().collect(Collectors.toMap(ViewStatsDto::getUri, ViewStatsDto::getHits));
+    }
+
+    private void saveEntity(String uri, LocalDateTime hitTime) {
+        EndpointHit hit = new EndpointHit();
+        hit.setApp("ewm-main-service");
+        hit.setUri(uri);
+        hit.setIp("192.168.1.1");
+        hit.setHitTime(hitTime);
+        hitRepository.save(hit);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.stats.server.encoding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.repository.EndpointHitRepository;
+import ru.practicum.stats.server.service.StatsService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HitDictionaryTest {
+
+    private static final String TIME = "2024-03-01 12:00:00";
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private HitDictionary dictionary;
+
+    @Autowired
+    private EndpointHitRepository hitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        hitRepository.deleteAll();
+    }
+
+    @Test
+    void saveHits_shouldStoreDictionaryIdsAndBinaryIps() {
+        statsService.saveHits(List.of(
+                new EndpointHitDto("dictionary-app", "/dictionary/1", "10.1.0.1", TIME),
+                new EndpointHitDto("dictionary-app", "/dictionary/1", "10.1.0.2", TIME),
+                new EndpointHitDto("dictionary-app", "/dictionary/2", "2001:db8::1", TIME)));
+        statsService.saveHit(new EndpointHitDto("dictionary-app", "/dictionary/2", "10.1.0.1", TIME));
+
+        assertEquals(2, count("SELECT COUNT(*) FROM stats_uri WHERE uri LIKE '/dictionary/%'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM stats_app WHERE name = 'dictionary-app'"));
+        assertEquals(1, count("SELECT COUNT(DISTINCT app_id) FROM stats_hit"));
+        assertEquals(3, count("SELECT COUNT(*) FROM stats_hit WHERE OCTET_LENGTH(ip) = 4"));
+        assertEquals(1, count("SELECT COUNT(*) FROM stats_hit WHERE OCTET_LENGTH(ip) = 16"));
+
+        int uriId = dictionary.uriId("/dictionary/1");
+        assertEquals(Map.of("/dictionary/1", uriId), dictionary.uriIds(List.of("/dictionary/1")));
+        assertEquals("/dictionary/1", dictionary.uri(uriId));
+    }
+
+    @Test
+    void getStats_shouldReturnStringsForGroupedRows() {
+        statsService.saveHits(List.of(
+                new EndpointHitDto("dictionary-app", "/dictionary/3", "10.1.0.1", TIME),
+                new EndpointHitDto("dictionary-app", "/dictionary/3", "10.1.0.1", TIME),
+                new EndpointHitDto("dictionary-app", "/dictionary/4", "10.1.0.1", TIME)));
+
+        List<ViewStatsDto> stats = statsService.getStats(
+                LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 2, 0, 0), List.of("/dictionary/3"), false);
+
+        assertEquals(1, stats.size());
+        assertEquals("dictionary-app", stats.getFirst().getApp());
+        assertEquals("/dictionary/3", stats.getFirst().getUri());
+        assertEquals(2L, stats.getFirst().getHits());
+    }
+
+    @Test
+    void uriIds_inRolledBackTransaction_shouldNotCacheTheId() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            dictionary.uriIds(List.of("/rolled-back/1"));
+            status.setRollbackOnly();
+        });
+
+        int id = dictionary.uriId("/rolled-back/1");
+        assertEquals(1, count("SELECT COUNT(*) FROM stats_uri WHERE uri = '/rolled-back/1'"));
+        assertEquals("/rolled-back/1", jdbcTemplate.queryForObject(
+                "SELECT uri FROM stats_uri WHERE id = ?", String.class, id));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
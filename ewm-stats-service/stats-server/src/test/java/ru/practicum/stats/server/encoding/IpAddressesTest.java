@@ -0,0 +1,33 @@
+package ru.practicum.stats.server.encoding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class IpAddressesTest {
+
+    @Test
+    void toBytes_shouldPackAddresses() {
+        assertArrayEquals(new byte[]{(byte) 192, (byte) 168, 1, 1}, IpAddresses.toBytes("192.168.1.1"));
+        assertEquals(16, IpAddresses.toBytes("2001:db8::1").length);
+        // IPv4-mapped IPv6 — тот же IPv4
+        assertEquals(4, IpAddresses.toBytes("::ffff:10.0.0.1").length);
+    }
+
+    @Test
+    void roundTrip_shouldReturnCanonicalAddress() {
+        assertEquals("192.168.1.1", IpAddresses.normalize("192.168.1.1"));
+        assertEquals("0:0:0:0:0:0:0:1", IpAddresses.normalize("::1"));
+        assertEquals("10.0.0.1", IpAddresses.normalize("::ffff:10.0.0.1"));
+    }
+
+    @Test
+    void nonAddress_shouldBeKeptAsText() {
+        for (String value : new String[]{"unknown", "1.2.3", "01.2.3.4", "1.2.3.256", "abcd", "abcdefghijklmnop", "zz:1", ""}) {
+            assertEquals(value, IpAddresses.toString(IpAddresses.toBytes(value)), value);
+        }
+        // текст длиной с адрес не должен читаться как адрес
+        assertEquals(5, IpAddresses.toBytes("abcd").length);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.stats.server.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class HitPartitionMaintainerTest {
+
+    @Test
+    void parseBound_shouldReadPostgresRangeBounds() {
+        assertEquals(new PartitionRange("stats_hit_p20240115", at(15, 0), at(16, 0)),
+                HitPartitionMaintainer.parseBound("stats_hit_p20240115",
+                        "FOR VALUES FROM ('2024-01-15 00:00:00') TO ('2024-01-16 00:00:00')"));
+        assertEquals(new PartitionRange("stats_hit_legacy", null, at(15, 0)),
+                HitPartitionMaintainer.parseBound("stats_hit_legacy",
+                        "FOR VALUES FROM (MINVALUE) TO ('2024-01-15 00:00:00')"));
+        assertNull(HitPartitionMaintainer.parseBound("stats_hit_default", "DEFAULT"));
+    }
+
+    @Test
+    void missing_shouldSkipIntervalsCoveredByExistingPartitions() {
+        List<PartitionRange> existing = List.of(
+                new PartitionRange("stats_hit_legacy", null, at(15, 0)),
+                new PartitionRange("stats_hit_p20240116", at(16, 0), at(17, 0)));
+
+        List<LocalDateTime> missing = HitPartitionMaintainer.missing(existing, at(14, 13), PartitionInterval.DAY, 3);
+
+        assertEquals(List.of(at(15, 0), at(17, 0)), missing);
+    }
+
+    @Test
+    void missing_monthly_shouldStartAtFirstDayOfMonth() {
+        List<LocalDateTime> missing = HitPartitionMaintainer.missing(List.of(), at(14, 13), PartitionInterval.MONTH, 1);
+
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0)), missing);
+        assertEquals("stats_hit_p202402", PartitionInterval.MONTH.partitionName("stats_hit", missing.get(1)));
+    }
+
+    @Test
+    void expired_shouldDropOnlyRolledUpPartitionsOlderThanRetention() {
+        List<PartitionRange> existing = List.of(
+                new PartitionRange("stats_hit_legacy", null, at(10, 0)),
+                new PartitionRange("stats_hit_p20240110", at(10, 0), at(11, 0)),
+                new PartitionRange("stats_hit_p20240111", at(11, 0), at(12, 0)),
+                new PartitionRange("stats_hit_p20240112", at(12, 0), at(13, 0)));
+        LocalDateTime now = at(20, 12);
+
+        // по возрасту можно удалить всё до 12-го, но свёрнуто только до середины 11-го
+        LocalDateTime cutoff = HitPartitionMaintainer.retentionCutoff(now, Duration.ofDays(8), at(11, 15));
+        assertEquals(List.of("stats_hit_legacy", "stats_hit_p20240110"),
+                HitPartitionMaintainer.expired(existing, cutoff).stream().map(PartitionRange::name).toList());
+
+        // компактор ещё не запускался — удалять нечего
+        assertEquals(List.of(), HitPartitionMaintainer.expired(existing,
+                HitPartitionMaintainer.retentionCutoff(now, Duration.ofDays(8), null)));
+    }
+
+    private static LocalDateTime at(int day, int hour) {
+        return LocalDateTime.of(2024, 1, day, hour, 0);
+    }
+}
@@ -0,0 +1,227 @@
+package ru.practicum.stats.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.model.EndpointHitRollup;
+import ru.practicum.stats.server.model.RollupState;
+import ru.practicum.stats.server.repository.EndpointHitRepository;
+import ru.practicum.stats.server.repository.EndpointHitRollupRepository;
+import ru.practicum.stats.server.repository.RollupStateRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RollupServiceTest {
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private EndpointHitRepository hitRepository;
+
+    @Autowired
+    private EndpointHitRollupRepository rollupRepository;
+
+    @Autowired
+    private RollupStateRepository stateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        tx = new TransactionTemplate(transactionManager);
+        hitRepository.deleteAll();
+        rollupRepository.deleteAll();
+        stateRepository.deleteAll();
+    }
+
+    @Test
+    void compact_shouldAdvanceWatermark_andKeepStatsExact() {
+        saveEntity("/events/1", at(10, 5, 0));
+        saveEntity("/events/1", at(10, 30, 0));
+        saveEntity("/events/1", at(11, 10, 0));
+        saveEntity("/events/1", at(12, 59, 59));
+        saveEntity("/events/1", at(13, 0, 0));
+        saveEntity("/events/2", at(11, 30, 0));
+
+        assertNull(rollupService.watermark());
+
+        int hours = rollupService.compact(at(13, 20, 0));
+
+        assertEquals(3, hours);
+        assertEquals(at(13, 0, 0), rollupService.watermark());
+        assertEquals(4, rollupRepository.count());
+
+        // края интервала приходятся на середину часа: часть данных из агрегатов, часть из сырых хитов
+        Map<String, Long> stats = hits(statsService.getStats(at(10, 10, 0), at(13, 30, 0), null, false));
+        assertEquals(Map.of("/events/1", 4L, "/events/2", 1L), stats);
+
+        // правая граница включительно, как и в запросе по сырым данным
+        stats = hits(statsService.getStats(at(10, 0, 0), at(13, 0, 0), List.of("/events/1"), false));
+        assertEquals(Map.of("/events/1", 5L), stats);
+
+        stats = hits(statsService.getStats(at(10, 0, 0), at(12, 0, 0), null, false));
+        assertEquals(Map.of("/events/1", 3L, "/events/2", 1L), stats);
+    }
+
+    @Test
+    void saveHits_withTimeBeforeWatermark_shouldBeAddedToRollup() {
+        saveEntity("/events/1", at(10, 5, 0));
+        rollupService.compact(at(12, 0, 0));
+
+        statsService.saveHits(List.of(
+                new EndpointHitDto("ewm-main-service", "/events/1", "10.0.0.1", "2024-01-15 10:40:00"),
+                new EndpointHitDto("ewm-main-service", "/events/2", "10.0.0.1", "2024-01-15 10:45:00")
+        ));
+
+        Map<String, Long> stats = hits(statsService.getStats(at(10, 0, 0), at(11, 0, 0), null, false));
+        assertEquals(Map.of("/events/1", 2L, "/events/2", 1L), stats);
+    }
+
+    @Test
+    void lateHit_committedWhileItsHourIsBeingCompacted_shouldNotBeLost() throws Exception {
+        saveEntity("/events/1", at(10, 5, 0));
+        rollupService.compact(at(10, 0, 0));
+        assertEquals(at(10, 0, 0), rollupService.watermark());
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch inserted = new CountDownLatch(1);
+
+        // компактор сворачивает час 10, пока хит этого часа вставлен, но не закоммичен, — и не видит его.
+        // Агрегат записывается напрямую: H2, в отличие от PostgreSQL, заставил бы rollupRange ждать коммита хита
+        CompletableFuture<Void> compactor = CompletableFuture.runAsync(() -> tx.executeWithoutResult(status -> {
+            RollupState state = stateRepository.findForUpdate(RollupService.HOURLY).orElseThrow();
+            locked.countDown();
+            await(inserted);
+            EndpointHitRollup rollup = new EndpointHitRollup();
+            rollup.setApp("ewm-main-service");
+            rollup.setUri("/events/1");
+            rollup.setBucketStart(at(10, 0, 0));
+            rollup.setHits(1L);
+            rollupRepository.save(rollup);
+            state.setWatermark(at(11, 0, 0));
+            stateRepository.save(state);
+            sleep(300);
+        }));
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+
+        tx.executeWithoutResult(status -> {
+            EndpointHit hit = saveEntity("/events/1", at(10, 40, 0), "10.0.0.1");
+            inserted.countDown();
+            rollupService.recordLateHits(List.of(hit));
+        });
+        compactor.get(1, TimeUnit.SECONDS);
+
+        Map<String, Long> stats = hits(statsService.getStats(at(10, 0, 0), at(11, 0, 0), null, false));
+        assertEquals(Map.of("/events/1", 2L), stats);
+        assertEquals(2L, rollupRepository.findAll().stream().mapToLong(EndpointHitRollup::getHits).sum());
+    }
+
+    @Test
+    void getStats_approximateUnique_shouldMergeHourSketchesAndRawEdges() {
+        saveEntity("/events/1", at(10, 5, 0), "10.0.0.1");
+        saveEntity("/events/1", at(10, 30, 0), "10.0.0.2");
+        saveEntity("/events/1", at(11, 10, 0), "10.0.0.1");
+        saveEntity("/events/1", at(11, 20, 0), "10.0.0.3");
+        saveEntity("/events/1", at(12, 40, 0), "10.0.0.4");
+        rollupService.compact(at(12, 0, 0));
+
+        // поздний хит нового посетителя попадает в скетч уже свёрнутого часа
+        statsService.saveHits(List.of(
+                new EndpointHitDto("ewm-main-service", "/events/1", "10.0.0.5", "2024-01-15 10:50:00")));
+
+        Map<String, Long> approximate = hits(statsService.getStats(at(10, 0, 0), at(13, 0, 0), null, true, true));
+        Map<String, Long> exact = hits(statsService.getStats(at(10, 0, 0), at(13, 0, 0), null, true, false));
+
+        assertEquals(Map.of("/events/1", 5L), exact);
+        assertEquals(exact, approximate);
+    }
+
+    @Test
+    void getStats_exactUnique_overDroppedRawHits_shouldFallBackToSketches() {
+        saveEntity("/events/1", at(10, 5, 0), "10.0.0.1");
+        saveEntity("/events/1", at(10, 30, 0), "10.0.0.2");
+        saveEntity("/events/1", at(11, 10, 0), "10.0.0.1");
+        saveEntity("/events/1", at(11, 20, 0), "10.0.0.3");
+        rollupService.compact(at(12, 0, 0));
+
+        // retention удаляет партицию с сырыми хитами до 11:00
+        tx.executeWithoutResult(status -> {
+            rollupService.markRawHitsDroppedBefore(at(11, 0, 0));
+            hitRepository.deleteAll(hitRepository.findAll().stream()
+                    .filter(h -> h.getHitTime().isBefore(at(11, 0, 0)))
+                    .toList());
+        });
+
+        Map<String, Long> exact = hits(statsService.getStats(at(10, 0, 0), at(12, 0, 0), null, true, false));
+        assertEquals(Map.of("/events/1", 3L), exact);
+
+        // интервал целиком в сохранённых сырых хитах считается точно
+        assertEquals(Map.of("/events/1", 2L),
+                hits(statsService.getStats(at(11, 0, 0), at(12, 0, 0), null, true, false)));
+    }
+
+    private Map<String, Long> hits(List<ViewStatsDto> stats) {
+        return stats.stream().collect(Collectors.toMap(ViewStatsDto::getUri, ViewStatsDto::getHits));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private LocalDateTime at(int hour, int minute, int second) {
+        return LocalDateTime.of(2024, 1, 15, hour, minute, second);
+    }
+
+    private void saveEntity(String uri, LocalDateTime hitTime) {
+        saveEntity(uri, hitTime, "192.168.1.1");
+    }
+
+    private EndpointHit saveEntity(String uri, LocalDateTime hitTime, String ip) {
+        EndpointHit hit = new EndpointHit();
+        hit.setApp("ewm-main-service");
+        hit.setUri(uri);
+        hit.setIp(ip);
+        hit.setHitTime(hitTime);
+        return hitRepository.save(hit);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.stats.server.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_shouldBeExactForSmallCardinalities() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 3; i++) {
+            sketch.add("192.168.0.1");
+            sketch.add("192.168.0.2");
+        }
+
+        assertEquals(2, sketch.estimate());
+    }
+
+    @Test
+    void estimate_shouldStayWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        int n = 200_000;
+        for (int i = 0; i < n; i++) {
+            sketch.add(ip(i));
+        }
+
+        double error = Math.abs(sketch.estimate() - n) / (double) n;
+        assertTrue(error < 3 * HyperLogLog.relativeError(), "error=" + error);
+    }
+
+    @Test
+    void merge_shouldCountSharedVisitorsOnce() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            first.add(ip(i));
+            second.add(ip(i + 10_000));
+        }
+
+        first.merge(second);
+
+        double error = Math.abs(first.estimate() - 30_000) / 30_000.0;
+        assertTrue(error < 3 * HyperLogLog.relativeError(), "error=" + error);
+    }
+
+    @Test
+    void toBytes_shouldRoundTripSparseAndDense() {
+        HyperLogLog sparse = new HyperLogLog();
+        sparse.add("10.0.0.1");
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            dense.add(ip(i));
+        }
+
+        assertEquals(4, sparse.toBytes().length);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparse.toBytes()).estimate());
+        assertEquals(dense.estimate(), HyperLogLog.fromBytes(dense.toBytes()).estimate());
+    }
+
+    private String ip(int i) {
+        return (i >>> 24 & 0xFF) + "." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF);
+    }
+}